@@ -33,13 +33,13 @@ abstract class EnergyConsumer {
     // Method to turn the device on
     public void turnOn() {
         this.status = true;
-        System.out.println(name + " is turned ON.");
+        DeviceEventLog.getDefault().info(name, "is turned ON.");
     }
 
     // Method to turn the device off
     public void turnOff() {
         this.status = false;
-        System.out.println(name + " is turned OFF.");
+        DeviceEventLog.getDefault().info(name, "is turned OFF.");
     }
 
     // Method to calculate the energy consumption over a given duration
@@ -20,7 +20,10 @@ class SmartHVAC extends EnergyConsumer {
     // Setter for the target temperature
     public void setTargetTemperature(double targetTemperature) {
         this.targetTemperature = targetTemperature;
-        System.out.println(getName() + " target temperature set to " + targetTemperature + "°C.");
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "target temperature set to " + targetTemperature + "°C.");
+        }
     }
 
     // Getter for the fan speed
@@ -47,9 +50,12 @@ class SmartHVAC extends EnergyConsumer {
                     super.setPowerConsumption(500); // High
                     break;
             }
-            System.out.println(getName() + " fan speed set to " + fanSpeed + ".");
+            DeviceEventLog log = DeviceEventLog.getDefault();
+            if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+                log.info(getName(), "fan speed set to " + fanSpeed + ".");
+            }
         } else {
-            System.out.println("Invalid fan speed.");
+            DeviceEventLog.getDefault().warn(getName(), "Invalid fan speed: " + fanSpeed + ".");
         }
     }
 
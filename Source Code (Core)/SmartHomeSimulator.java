@@ -33,13 +33,13 @@ abstract class EnergyConsumer {
     // Method to turn the device on
     public void turnOn() {
         this.status = true;
-        System.out.println(name + " is turned ON.");
+        DeviceEventLog.getDefault().info(name, "is turned ON.");
     }
 
     // Method to turn the device off
     public void turnOff() {
         this.status = false;
-        System.out.println(name + " is turned OFF.");
+        DeviceEventLog.getDefault().info(name, "is turned OFF.");
     }
 
     // Method to calculate the energy consumption over a given duration
@@ -90,9 +90,12 @@ class SmartLight extends EnergyConsumer {
             this.brightness = level;
             // Adjust power consumption based on brightness (simple linear model)
             super.setPowerConsumption(super.getPowerConsumption() * (level / 100.0));
-            System.out.println(getName() + " is dimmed to " + level + "%.");
+            DeviceEventLog log = DeviceEventLog.getDefault();
+            if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+                log.info(getName(), "is dimmed to " + level + "%.");
+            }
         } else {
-            System.out.println("Invalid brightness level.");
+            DeviceEventLog.getDefault().warn(getName(), "Invalid brightness level: " + level + "%.");
         }
     }
 
@@ -101,7 +104,7 @@ class SmartLight extends EnergyConsumer {
     public void turnOn() {
         super.turnOn(); // Call the turnOn method of the superclass
         if (occupancySensor) {
-            System.out.println(getName() + " turned on due to occupancy.");
+            DeviceEventLog.getDefault().info(getName(), "turned on due to occupancy.");
         }
     }
 
@@ -134,7 +137,10 @@ class SmartHVAC extends EnergyConsumer {
     // Setter for the target temperature
     public void setTargetTemperature(double targetTemperature) {
         this.targetTemperature = targetTemperature;
-        System.out.println(getName() + " target temperature set to " + targetTemperature + "°C.");
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "target temperature set to " + targetTemperature + "°C.");
+        }
     }
 
     // Getter for the fan speed
@@ -161,9 +167,12 @@ class SmartHVAC extends EnergyConsumer {
                     super.setPowerConsumption(500); // High
                     break;
             }
-            System.out.println(getName() + " fan speed set to " + fanSpeed + ".");
+            DeviceEventLog log = DeviceEventLog.getDefault();
+            if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+                log.info(getName(), "fan speed set to " + fanSpeed + ".");
+            }
         } else {
-            System.out.println("Invalid fan speed.");
+            DeviceEventLog.getDefault().warn(getName(), "Invalid fan speed: " + fanSpeed + ".");
         }
     }
 
@@ -202,7 +211,10 @@ class SmartRefrigerator extends EnergyConsumer {
     // Setter for the internal temperature
     public void setInternalTemperature(double internalTemperature) {
         this.internalTemperature = internalTemperature;
-        System.out.println(getName() + " internal temperature set to " + internalTemperature + "°C.");
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "internal temperature set to " + internalTemperature + "°C.");
+        }
     }
 
     // Override the displayStatus method to show refrigerator-specific information
@@ -21,9 +21,12 @@ class SmartLight extends EnergyConsumer {
             this.brightness = level;
             // Adjust power consumption based on brightness (simple linear model)
             super.setPowerConsumption(super.getPowerConsumption() * (level / 100.0));
-            System.out.println(getName() + " is dimmed to " + level + "%.");
+            DeviceEventLog log = DeviceEventLog.getDefault();
+            if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+                log.info(getName(), "is dimmed to " + level + "%.");
+            }
         } else {
-            System.out.println("Invalid brightness level.");
+            DeviceEventLog.getDefault().warn(getName(), "Invalid brightness level: " + level + "%.");
         }
     }
 
@@ -32,7 +35,7 @@ class SmartLight extends EnergyConsumer {
     public void turnOn() {
         super.turnOn(); // Call the turnOn method of the superclass
         if (occupancySensor) {
-            System.out.println(getName() + " turned on due to occupancy.");
+            DeviceEventLog.getDefault().info(getName(), "turned on due to occupancy.");
         }
     }
 
@@ -16,7 +16,10 @@ class SmartRefrigerator extends EnergyConsumer {
     // Setter for the internal temperature
     public void setInternalTemperature(double internalTemperature) {
         this.internalTemperature = internalTemperature;
-        System.out.println(getName() + " internal temperature set to " + internalTemperature + "°C.");
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "internal temperature set to " + internalTemperature + "°C.");
+        }
     }
 
     // Override the displayStatus method to show refrigerator-specific information
@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+// Batched dispatch of many home batteries (one per home) over primitive arrays.
+// Uses the same model as BatteryStorage, one array element per battery.
+public class BatteryBank {
+    private final double[] capacity; // in kWh
+    private final double[] maxChargeRate; // in kW
+    private final double[] maxDischargeRate; // in kW
+    private final double[] chargeEfficiency; // sqrt(round-trip efficiency)
+    private final double[] stateOfCharge; // in kWh
+
+    // Constructor for a bank of identical, empty batteries
+    public BatteryBank(int count, double capacity, double maxChargeRate, double maxDischargeRate, double roundTripEfficiency) {
+        validate(capacity, maxChargeRate, maxDischargeRate, roundTripEfficiency);
+        this.capacity = new double[count];
+        this.maxChargeRate = new double[count];
+        this.maxDischargeRate = new double[count];
+        this.chargeEfficiency = new double[count];
+        this.stateOfCharge = new double[count];
+        Arrays.fill(this.capacity, capacity);
+        Arrays.fill(this.maxChargeRate, maxChargeRate);
+        Arrays.fill(this.maxDischargeRate, maxDischargeRate);
+        Arrays.fill(this.chargeEfficiency, Math.sqrt(roundTripEfficiency));
+    }
+
+    // Replaces the parameters of one battery
+    public void configure(int index, double capacity, double maxChargeRate, double maxDischargeRate, double roundTripEfficiency) {
+        validate(capacity, maxChargeRate, maxDischargeRate, roundTripEfficiency);
+        this.capacity[index] = capacity;
+        this.maxChargeRate[index] = maxChargeRate;
+        this.maxDischargeRate[index] = maxDischargeRate;
+        this.chargeEfficiency[index] = Math.sqrt(roundTripEfficiency);
+        this.stateOfCharge[index] = Math.min(stateOfCharge[index], capacity);
+    }
+
+    // Same checks as BatteryStorage
+    private static void validate(double capacity, double maxChargeRate, double maxDischargeRate, double roundTripEfficiency) {
+        if (capacity < 0 || maxChargeRate < 0 || maxDischargeRate < 0
+                || roundTripEfficiency <= 0 || roundTripEfficiency > 1) {
+            throw new IllegalArgumentException("Invalid battery parameters");
+        }
+    }
+
+    public int size() {
+        return capacity.length;
+    }
+
+    public double getStateOfCharge(int index) {
+        return stateOfCharge[index];
+    }
+
+    // Total energy stored in the bank (in kWh)
+    public double getTotalStateOfCharge() {
+        double total = 0.0;
+        for (double soc : stateOfCharge) {
+            total += soc;
+        }
+        return total;
+    }
+
+    // Dispatches every battery for one step. netKWh[i] is home i's consumption minus generation;
+    // it is overwritten in place with the remaining grid exchange (positive = import, negative = export).
+    public void dispatch(double[] netKWh, double durationHours) {
+        if (netKWh.length < capacity.length) {
+            throw new IllegalArgumentException("Need one net value per battery: " + netKWh.length + " < " + capacity.length);
+        }
+        for (int i = 0; i < capacity.length; i++) {
+            double net = netKWh[i];
+            double eff = chargeEfficiency[i];
+            double soc = stateOfCharge[i];
+            // Charge from surplus (net < 0)
+            double absorbed = Math.min(Math.min(Math.max(-net, 0.0), maxChargeRate[i] * durationHours),
+                    (capacity[i] - soc) / eff);
+            // Discharge into deficit (net > 0)
+            double delivered = Math.min(Math.min(Math.max(net, 0.0), maxDischargeRate[i] * durationHours), soc * eff);
+            stateOfCharge[i] = soc + absorbed * eff - delivered / eff;
+            netKWh[i] = net + absorbed - delivered;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+// Class representing a home battery that stores surplus renewable energy for later use.
+// Round-trip losses are split evenly between charging and discharging.
+public class BatteryStorage {
+    private final double capacity; // in kWh
+    private final double maxChargeRate; // in kW
+    private final double maxDischargeRate; // in kW
+    private final double chargeEfficiency; // sqrt(round-trip efficiency)
+    private double stateOfCharge; // stored energy in kWh
+
+    // Constructor for the BatteryStorage (starts empty)
+    public BatteryStorage(double capacity, double maxChargeRate, double maxDischargeRate, double roundTripEfficiency) {
+        if (capacity < 0 || maxChargeRate < 0 || maxDischargeRate < 0
+                || roundTripEfficiency <= 0 || roundTripEfficiency > 1) {
+            throw new IllegalArgumentException("Invalid battery parameters");
+        }
+        this.capacity = capacity;
+        this.maxChargeRate = maxChargeRate;
+        this.maxDischargeRate = maxDischargeRate;
+        this.chargeEfficiency = Math.sqrt(roundTripEfficiency);
+        this.stateOfCharge = 0.0;
+    }
+
+    // Charges from a surplus (netKWh < 0) or covers a deficit (netKWh > 0) over durationHours.
+    // Returns the remaining net energy exchanged with the grid (positive = import, negative = export).
+    public double dispatch(double netKWh, double durationHours) {
+        if (netKWh < 0) {
+            double room = (capacity - stateOfCharge) / chargeEfficiency; // surplus the battery can take in
+            double absorbed = Math.min(Math.min(-netKWh, maxChargeRate * durationHours), room);
+            stateOfCharge += absorbed * chargeEfficiency;
+            return netKWh + absorbed;
+        } else if (netKWh > 0) {
+            double available = stateOfCharge * chargeEfficiency; // energy the battery can deliver
+            double delivered = Math.min(Math.min(netKWh, maxDischargeRate * durationHours), available);
+            stateOfCharge -= delivered / chargeEfficiency;
+            return netKWh - delivered;
+        }
+        return 0.0;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public double getMaxChargeRate() {
+        return maxChargeRate;
+    }
+
+    public double getMaxDischargeRate() {
+        return maxDischargeRate;
+    }
+
+    public double getRoundTripEfficiency() {
+        return chargeEfficiency * chargeEfficiency;
+    }
+
+    public double getStateOfCharge() {
+        return stateOfCharge;
+    }
+
+    // Setter for the stored energy (clamped to 0..capacity)
+    public void setStateOfCharge(double stateOfCharge) {
+        this.stateOfCharge = Math.max(0, Math.min(capacity, stateOfCharge));
+    }
+}
@@ -0,0 +1,46 @@
+import java.io.PrintStream;
+import java.util.List;
+
+// Prints simulation results to the console in the classic text format
+public class ConsoleSimulationReporter implements SimulationListener {
+    private final SmartHomeSimulator simulator;
+    private final PrintStream out;
+
+    // Constructor for a reporter printing to System.out
+    public ConsoleSimulationReporter(SmartHomeSimulator simulator) {
+        this(simulator, System.out);
+    }
+
+    // Constructor for a reporter printing to the given stream
+    public ConsoleSimulationReporter(SmartHomeSimulator simulator, PrintStream out) {
+        this.simulator = simulator;
+        this.out = out;
+    }
+
+    @Override
+    public boolean needsDeviceEnergy() {
+        return true;
+    }
+
+    @Override
+    public void onSimulationResult(SimulationResult result) {
+        // Report each device
+        if (result.hasDeviceEnergy()) {
+            List<EnergyConsumer> devices = simulator.getDevices();
+            int count = Math.min(result.getDeviceCount(), devices.size());
+            for (int i = 0; i < count; i++) {
+                EnergyConsumer device = devices.get(i);
+                out.println(device.getName() + " consumed " + String.format("%.3f", result.getDeviceEnergy(i)) + " kWh.");
+                device.displayStatus();
+            }
+        }
+
+        // Print the simulation results
+        out.println("\n--- Simulation Results ---");
+        out.println("Total Energy Consumption: " + String.format("%.3f", result.getTotalEnergyConsumption()) + " kWh");
+        out.println("Total Renewable Energy Generated: " + String.format("%.3f", result.getTotalRenewableEnergy()) + " kWh");
+        out.println("Net Energy Consumption: " + String.format("%.3f", result.getNetEnergyConsumption()) + " kWh");
+        out.println("Total Cost: $" + String.format("%.2f", result.getCost())); // Format cost to 2 decimal places
+        out.println("--- End Simulation ---");
+    }
+}
@@ -0,0 +1,436 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted PBKDF2 password store in an indexed binary file, replacing the plaintext users.txt.
+// The file is only read on the first lookup, and a lookup is a binary search over a sorted index of
+// username hashes, so startup does not depend on the number of users. The file is read into a heap buffer
+// rather than memory-mapped, because Windows cannot replace a file that is still mapped. Hashing is slow
+// on purpose; verifyAsync() runs it on a background executor, and a small LRU cache remembers recent
+// successful logins so repeated checks of the same password are cheap.
+//
+// File layout (little endian):
+//   0  int  magic "CRED"      8  int  user count
+//   4  int  format version    12 int  reserved
+//   16 index: (long username hash, int entry offset) per user, sorted by hash
+//   entries: (short name length, UTF-8 name, int iterations, byte salt length, salt, byte hash length, hash)
+public class CredentialStore {
+    static final int MAGIC = 0x44455243; // "CRED" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int ITERATIONS = 210_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int CACHE_SIZE = 256;
+
+    private final Path path;
+    private final ExecutorService executor;
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] cachePepper = new byte[32]; // per-process key for the verification cache
+    private final byte[] dummySalt = new byte[SALT_BYTES];
+    private ByteBuffer contents; // whole file, null until first use
+    private long loadedModified;
+    private Object loadedFileKey; // identifies the file on disk (inode); a replaced file gets a new one
+    private int userCount;
+
+    // Recently verified logins: username -> SHA-256(pepper, password); evicts the least recently used
+    private final Map<String, byte[]> verified = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // A stored user: name plus how to recompute the password hash
+    private static final class Entry {
+        final String name;
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Entry(String name, int iterations, byte[] salt, byte[] hash) {
+            this.name = name;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+
+    // Constructor for a store backed by the given file; nothing is read until the first verification
+    public CredentialStore(Path path) {
+        this.path = path;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), task -> {
+            Thread thread = new Thread(task, "credential-verify-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        random.nextBytes(cachePepper);
+        random.nextBytes(dummySalt);
+    }
+
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    // Checks a password on the background executor; the password array is cleared afterwards
+    public CompletableFuture<Boolean> verifyAsync(String username, char[] password) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return verify(username, password);
+            } finally {
+                Arrays.fill(password, '\0');
+            }
+        }, executor);
+    }
+
+    // Checks a password on the calling thread; slow for users not in the verification cache
+    public boolean verify(String username, char[] password) {
+        byte[] fingerprint = fingerprint(password);
+        try {
+            refresh(); // a replaced file clears the cache, so a changed password is never accepted from it
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        synchronized (verified) {
+            byte[] cached = verified.get(username);
+            if (cached != null && MessageDigest.isEqual(cached, fingerprint)) {
+                return true;
+            }
+        }
+
+        Entry entry;
+        try {
+            entry = find(username);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if (entry == null) {
+            hash(password, dummySalt, ITERATIONS); // same cost as a real check, so unknown names are not revealed
+            return false;
+        }
+        boolean matches = MessageDigest.isEqual(entry.hash, hash(password, entry.salt, entry.iterations));
+        if (matches) {
+            synchronized (verified) {
+                verified.put(username, fingerprint);
+            }
+        }
+        return matches;
+    }
+
+    // Imports a plaintext "username:password" file (the old users.txt format), hashing in parallel.
+    // Users already in the store keep their entry unless the file lists them again.
+    public CompletableFuture<Void> importPlaintextAsync(Path usersFile) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readPlaintext(usersFile);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read " + usersFile, e);
+            }
+        }, executor).thenCompose(users -> {
+            List<CompletableFuture<Entry>> hashed = new ArrayList<>();
+            for (Map.Entry<String, String> user : users.entrySet()) {
+                char[] password = user.getValue().toCharArray();
+                hashed.add(CompletableFuture.supplyAsync(() -> newEntry(user.getKey(), password), executor));
+            }
+            return CompletableFuture.allOf(hashed.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+                List<Entry> entries = new ArrayList<>();
+                for (CompletableFuture<Entry> entry : hashed) {
+                    entries.add(entry.join());
+                }
+                try {
+                    put(entries);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not write " + path, e);
+                }
+            });
+        });
+    }
+
+    // Adds or replaces one user (hashes on the calling thread)
+    public void setPassword(String username, char[] password) throws IOException {
+        put(List.of(newEntry(username, password)));
+    }
+
+    // Number of users in the store
+    public synchronized int getUserCount() throws IOException {
+        ensureLoaded();
+        return userCount;
+    }
+
+    // Merges entries into the file and replaces it atomically
+    private synchronized void put(List<Entry> entries) throws IOException {
+        TreeMap<String, Entry> all = new TreeMap<>();
+        ensureLoaded();
+        for (int i = 0; i < userCount; i++) {
+            Entry existing = readEntry(contents.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE + Long.BYTES));
+            all.put(existing.name, existing);
+        }
+        for (Entry entry : entries) {
+            all.put(entry.name, entry);
+        }
+        write(all);
+        synchronized (verified) {
+            for (Entry entry : entries) {
+                verified.remove(entry.name);
+            }
+        }
+        contents = null; // reload on next use
+    }
+
+    private void write(TreeMap<String, Entry> all) throws IOException {
+        int count = all.size();
+        byte[][] names = new byte[count][];
+        long[] keys = new long[count];
+        Entry[] entries = all.values().toArray(new Entry[0]);
+        int dataSize = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = entries[i].name.getBytes(StandardCharsets.UTF_8);
+            keys[i] = key(entries[i].name);
+            dataSize += Short.BYTES + names[i].length + Integer.BYTES + 1 + entries[i].salt.length + 1 + entries[i].hash.length;
+        }
+
+        // Sort the index by username hash
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        int dataOffset = HEADER_SIZE + count * INDEX_ENTRY_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(dataOffset + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0);
+        int[] offsets = new int[count];
+        buffer.position(dataOffset);
+        for (int i = 0; i < count; i++) {
+            offsets[i] = buffer.position();
+            Entry entry = entries[i];
+            buffer.putShort((short) names[i].length).put(names[i]);
+            buffer.putInt(entry.iterations);
+            buffer.put((byte) entry.salt.length).put(entry.salt);
+            buffer.put((byte) entry.hash.length).put(entry.hash);
+        }
+        buffer.position(HEADER_SIZE);
+        for (int i : order) {
+            buffer.putLong(keys[i]).putInt(offsets[i]);
+        }
+        buffer.position(0);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reloads the file if it has been replaced since it was last read
+    private synchronized void refresh() throws IOException {
+        ensureLoaded();
+    }
+
+    // Binary search of the index for the username's hash, then a check of the candidates' names
+    private synchronized Entry find(String username) throws IOException {
+        ensureLoaded();
+        long key = key(username);
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = contents.getLong(HEADER_SIZE + mid * INDEX_ENTRY_SIZE);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                // Walk back to the first entry with this hash, then check each one with the same hash
+                while (mid > 0 && contents.getLong(HEADER_SIZE + (mid - 1) * INDEX_ENTRY_SIZE) == key) {
+                    mid--;
+                }
+                for (; mid < userCount && contents.getLong(HEADER_SIZE + mid * INDEX_ENTRY_SIZE) == key; mid++) {
+                    Entry entry = readEntry(contents.getInt(HEADER_SIZE + mid * INDEX_ENTRY_SIZE + Long.BYTES));
+                    if (entry.name.equals(username)) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Reads the file on first use, and again whenever it has been replaced (by this or another process).
+    // Reloading forgets every cached login, since any password in the file may have changed.
+    private void ensureLoaded() throws IOException {
+        if (!Files.exists(path)) {
+            if (contents != null) {
+                clearVerified();
+            }
+            contents = null;
+            userCount = 0;
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        Object fileKey = attributes.fileKey(); // null on file systems without one; then the time decides
+        if (contents != null && modified == loadedModified && Objects.equals(fileKey, loadedFileKey)) {
+            return;
+        }
+        clearVerified();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Credential file too large: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of credential file: " + path);
+                }
+            }
+            buffer.flip();
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a credential file: " + path);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported credential file version: " + version);
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE > buffer.limit()) {
+                throw new IOException("Corrupt credential file header");
+            }
+            contents = buffer;
+            loadedModified = modified;
+            loadedFileKey = fileKey;
+            userCount = count;
+        }
+    }
+
+    private void clearVerified() {
+        synchronized (verified) {
+            verified.clear();
+        }
+    }
+
+    private Entry readEntry(int offset) {
+        ByteBuffer buffer = contents.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(offset);
+        byte[] name = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(name);
+        int iterations = buffer.getInt();
+        byte[] salt = new byte[buffer.get() & 0xFF];
+        buffer.get(salt);
+        byte[] hash = new byte[buffer.get() & 0xFF];
+        buffer.get(hash);
+        return new Entry(new String(name, StandardCharsets.UTF_8), iterations, salt, hash);
+    }
+
+    private Entry newEntry(String username, char[] password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        try {
+            return new Entry(username, ITERATIONS, salt, hash(password, salt, ITERATIONS));
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    private static byte[] hash(char[] password, byte[] salt, int iterations) {
+        KeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    // Cheap keyed digest of a password, only ever kept in memory for the verification cache
+    private byte[] fingerprint(char[] password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(cachePepper);
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+            digest.update(bytes);
+            if (bytes.hasArray()) {
+                Arrays.fill(bytes.array(), (byte) 0);
+            }
+            return digest.digest();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // 64-bit FNV-1a hash of the UTF-8 username, used as the index key
+    private static long key(String username) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Map<String, String> readPlaintext(Path usersFile) throws IOException {
+        Map<String, String> users = new LinkedHashMap<>();
+        try (BufferedReader br = Files.newBufferedReader(usersFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty() || !line.contains(":")) continue;
+                String[] parts = line.split(":", 2);
+                users.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+        return users;
+    }
+
+    // Command-line maintenance: add a user, or import the old plaintext users.txt
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("import")) {
+            CredentialStore store = new CredentialStore(Paths.get(args[1]));
+            store.importPlaintextAsync(Paths.get(args[2])).join();
+            System.out.println("Imported users; " + store.getUserCount() + " users in " + args[1]);
+        } else if (args.length == 4 && args[0].equals("add")) {
+            CredentialStore store = new CredentialStore(Paths.get(args[1]));
+            store.setPassword(args[2], args[3].toCharArray());
+            System.out.println("Saved user " + args[2] + "; " + store.getUserCount() + " users in " + args[1]);
+        } else {
+            System.out.println("Usage: java CredentialStore import <users.idx> <users.txt>");
+            System.out.println("       java CredentialStore add <users.idx> <username> <password>");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.Random;
+
+// Simple weather model: sunlight peaks linearly at noon each day and wind speed is random
+public class DailyWeatherModel implements EnvironmentModel {
+    private final SolarPanel[] solarPanels;
+    private final WindTurbine[] windTurbines;
+    private final double peakSunlight; // in Watts per square meter
+    private final double maxWindSpeed; // in meters per second
+    private final Random random;
+
+    // Constructor taking the sources to drive and a seed for reproducible wind
+    public DailyWeatherModel(SolarPanel[] solarPanels, WindTurbine[] windTurbines, long seed) {
+        this(solarPanels, windTurbines, 1000, 10, new Random(seed));
+    }
+
+    // Constructor with explicit peak sunlight, maximum wind speed and random source
+    public DailyWeatherModel(SolarPanel[] solarPanels, WindTurbine[] windTurbines,
+                             double peakSunlight, double maxWindSpeed, Random random) {
+        this.solarPanels = solarPanels.clone();
+        this.windTurbines = windTurbines.clone();
+        this.peakSunlight = peakSunlight;
+        this.maxWindSpeed = maxWindSpeed;
+        this.random = random;
+    }
+
+    // Builds a model driving every SolarPanel and WindTurbine registered with the simulator
+    public static DailyWeatherModel forSimulator(SmartHomeSimulator simulator, long seed) {
+        return new DailyWeatherModel(
+                simulator.getRenewableSources().stream().filter(SolarPanel.class::isInstance).toArray(SolarPanel[]::new),
+                simulator.getRenewableSources().stream().filter(WindTurbine.class::isInstance).toArray(WindTurbine[]::new),
+                seed);
+    }
+
+    // Sunlight intensity at the given time (in W/m^2)
+    public double sunlightAt(double timeHours) {
+        double hourOfDay = timeHours % 24.0;
+        return peakSunlight * Math.max(0, 1 - Math.abs(hourOfDay - 12) / 12.0);
+    }
+
+    @Override
+    public void apply(double timeHours) {
+        double sunlightIntensity = sunlightAt(timeHours);
+        for (SolarPanel panel : solarPanels) {
+            panel.setSunlightIntensity(sunlightIntensity);
+        }
+        for (WindTurbine turbine : windTurbines) {
+            turbine.setWindSpeed(random.nextDouble() * maxWindSpeed);
+        }
+    }
+}
@@ -1,25 +1,144 @@
 import java.sql.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.sqlite.SQLiteConfig;
 
-public class DeviceDatabase {
-    private static final String DB_URL = "jdbc:sqlite:smarthome.db";
+public class DeviceDatabase implements DeviceStore {
+    private static final String DEFAULT_URL = "jdbc:sqlite:smarthome.db";
+    private static final int READ_CONNECTIONS = 3;
+    private static final long READER_WAIT_SECONDS = 30;
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final String PAGE_SQL = """
+            SELECT id, name, type, status, brightness, targetTemperature, fanSpeed, powerConsumption
+            FROM devices WHERE id > ? ORDER BY id LIMIT ?
+        """;
+    private static final String DAILY_ENERGY_SQL =
+            "SELECT day, type, energy FROM telemetry_daily WHERE day >= ? AND day < ? ORDER BY day";
+    private static final int TELEMETRY_ROWS_PER_INSERT = 150; // 6 parameters per row, below SQLite's 999 limit
+
+    // Single writer connection with its long-lived statement; all writes hold writeLock
     private Connection conn;
+    private PreparedStatement upsertStmt;
+    private PreparedStatement telemetryStmt; // inserts TELEMETRY_ROWS_PER_INSERT rows at once
+    private PreparedStatement telemetryRowStmt; // inserts the rows left over at the end of a batch
+    private PreparedStatement hourlyRollupStmt;
+    private PreparedStatement dailyRollupStmt;
+    private final Object writeLock = new Object();
+
+    // Small pool of read-only connections; in WAL mode they read while the writer writes
+    private final BlockingQueue<Connection> readers = new ArrayBlockingQueue<>(READ_CONNECTIONS);
+    private final Map<Connection, PreparedStatement> pageStatements = new IdentityHashMap<>();
+    private final Map<Connection, PreparedStatement> dailyEnergyStatements = new IdentityHashMap<>();
+
+    private final String url;
 
     public DeviceDatabase() {
+        this(DEFAULT_URL);
+    }
+
+    // Constructor for a database at another JDBC URL, e.g. a scratch file for benchmarks
+    public DeviceDatabase(String url) {
+        this.url = url;
         connect();
         createTables();
+        prepareStatements();
+        openReaders();
     }
 
     private void connect() {
         try {
-            conn = DriverManager.getConnection(DB_URL);
+            conn = DriverManager.getConnection(url);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL;");
+                stmt.execute("PRAGMA synchronous=NORMAL;");
+                stmt.execute("PRAGMA busy_timeout=5000;");
+            }
             System.out.println("Connected to SQLite database.");
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    // Prepares the write statements once; they are reused for every save
+    private void prepareStatements() {
+        try {
+            upsertStmt = conn.prepareStatement(UPSERT_SQL);
+            telemetryStmt = conn.prepareStatement(telemetryInsertSql(TELEMETRY_ROWS_PER_INSERT));
+            telemetryRowStmt = conn.prepareStatement(telemetryInsertSql(1));
+            hourlyRollupStmt = conn.prepareStatement(rollupUpsertSql("telemetry_hourly", "hour"));
+            dailyRollupStmt = conn.prepareStatement(rollupUpsertSql("telemetry_daily", "day"));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Opens the read-only connections, each with its own cached load statement.
+    // The read-only flag has to be set when the connection is opened; sqlite-jdbc rejects setReadOnly() afterwards.
+    private void openReaders() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(5000);
+        for (int i = 0; i < READ_CONNECTIONS; i++) {
+            Connection reader = null;
+            try {
+                reader = config.createConnection(url);
+                PreparedStatement pageStmt = reader.prepareStatement(PAGE_SQL);
+                PreparedStatement dailyEnergyStmt = reader.prepareStatement(DAILY_ENERGY_SQL);
+                pageStatements.put(reader, pageStmt);
+                dailyEnergyStatements.put(reader, dailyEnergyStmt);
+                readers.add(reader);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                closeQuietly(reader);
+            }
+        }
+        if (readers.isEmpty()) {
+            System.out.println("No read connections could be opened to " + url + "; loads will fail.");
+        }
+    }
+
+    // Takes a read connection from the pool, failing instead of waiting forever when none is available
+    private Connection borrowReader() {
+        if (pageStatements.isEmpty()) {
+            throw new IllegalStateException("No read connections are open to " + url);
+        }
+        try {
+            Connection reader = readers.poll(READER_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (reader == null) {
+                throw new IllegalStateException("Timed out waiting for a read connection to " + url);
+            }
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a read connection", e);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     private void createTables() {
         String createDevicesTable = """
             CREATE TABLE IF NOT EXISTS devices (
@@ -33,155 +152,409 @@ public class DeviceDatabase {
             );
         """;
 
+        // Older databases may hold several rows per name. The old save path always updated the first
+        // row of a name (lowest id), so that row is the current one; the others are stale.
+        String removeDuplicateNames = """
+            DELETE FROM devices
+            WHERE id NOT IN (SELECT MIN(id) FROM devices GROUP BY name);
+        """;
+        String createNameIndex = "CREATE UNIQUE INDEX IF NOT EXISTS idx_devices_name ON devices (name);";
+
+        // Raw per-step telemetry plus hourly and daily rollups by device type, kept up to date on every insert
+        String createTelemetryTable = """
+            CREATE TABLE IF NOT EXISTS telemetry (
+                device TEXT NOT NULL,
+                type TEXT NOT NULL,
+                timestamp INTEGER NOT NULL,
+                energy REAL NOT NULL,
+                generation REAL NOT NULL,
+                cost REAL NOT NULL
+            );
+        """;
+        String createHourlyTable = """
+            CREATE TABLE IF NOT EXISTS telemetry_hourly (
+                hour INTEGER NOT NULL,
+                type TEXT NOT NULL,
+                energy REAL NOT NULL,
+                generation REAL NOT NULL,
+                cost REAL NOT NULL,
+                samples INTEGER NOT NULL,
+                PRIMARY KEY (hour, type)
+            ) WITHOUT ROWID;
+        """;
+        String createDailyTable = """
+            CREATE TABLE IF NOT EXISTS telemetry_daily (
+                day INTEGER NOT NULL,
+                type TEXT NOT NULL,
+                energy REAL NOT NULL,
+                generation REAL NOT NULL,
+                cost REAL NOT NULL,
+                samples INTEGER NOT NULL,
+                PRIMARY KEY (day, type)
+            ) WITHOUT ROWID;
+        """;
+
         try (Statement stmt = conn.createStatement()) {
             stmt.execute(createDevicesTable);
+            if (!indexExists(stmt, "idx_devices_name")) {
+                stmt.execute(removeDuplicateNames); // only needed once, before the index first enforces uniqueness
+                stmt.execute(createNameIndex);
+            }
+            addPowerColumn(stmt);
             System.out.println("Devices table ensured.");
+            stmt.execute(createTelemetryTable);
+            stmt.execute(createHourlyTable);
+            stmt.execute(createDailyTable);
+            System.out.println("Telemetry tables ensured.");
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    private static boolean indexExists(Statement stmt, String index) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = '" + index + "';")) {
+            return rs.next();
+        }
+    }
+
+    // Databases created before wattage was stored get a powerConsumption column; their rows keep NULL
+    // until next saved and load with the typical rating for their type
+    private void addPowerColumn(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(devices);")) {
+            while (rs.next()) {
+                if ("powerConsumption".equals(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        stmt.execute("ALTER TABLE devices ADD COLUMN powerConsumption REAL;");
+    }
+
     public List<EnergyConsumer> loadDevices() {
         List<EnergyConsumer> devices = new ArrayList<>();
-        String sql = "SELECT * FROM devices";
+        streamDevices().forEach(devices::add);
+        return devices;
+    }
 
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    @Override
+    public List<EnergyConsumer> load() {
+        return loadDevices();
+    }
 
-            while (rs.next()) {
-                String name = rs.getString("name");
-                String type = rs.getString("type");
-                boolean status = rs.getInt("status") == 1;
-
-                switch (type) {
-                    case "SmartLight" -> {
-                        int brightness = rs.getInt("brightness");
-                        SmartLight light = new SmartLight(name, 10, false); // example wattage
-                        light.setStatus(status);
-                        light.dim(brightness);
-                        devices.add(light);
-                    }
-                    case "SmartHVAC" -> {
-                        double targetTemp = rs.getDouble("targetTemperature");
-                        int fanSpeed = rs.getInt("fanSpeed");
-                        SmartHVAC hvac = new SmartHVAC(name, 1000); // example wattage
-                        hvac.setStatus(status);
-                        hvac.setTargetTemperature(targetTemp);
-                        hvac.setFanSpeed(fanSpeed);
-                        devices.add(hvac);
+    @Override
+    public Stream<DeviceRecord> stream() {
+        return streamRecords(DEFAULT_PAGE_SIZE);
+    }
+
+    // Streams all devices in id order, loading DEFAULT_PAGE_SIZE rows at a time
+    public Stream<EnergyConsumer> streamDevices() {
+        return streamDevices(DEFAULT_PAGE_SIZE);
+    }
+
+    // Streams all devices in id order; only one page of rows is held in memory at a time
+    public Stream<EnergyConsumer> streamDevices(int pageSize) {
+        return streamRecords(pageSize)
+                .map(record -> {
+                    EnergyConsumer device = record.toDevice();
+                    if (device == null) {
+                        System.out.println("Unknown device type: " + record.getType());
                     }
-                    case "SmartRefrigerator" -> {
-                        SmartRefrigerator fridge = new SmartRefrigerator(name, 150); // example wattage
-                        fridge.setStatus(status);
-                        devices.add(fridge);
+                    return device;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    // Streams the stored device rows without building device objects, e.g. for scans and exports
+    public Stream<DeviceRecord> streamRecords(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        Iterator<DeviceRecord> pages = new DevicePageIterator(pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Keyset pagination over the devices table: each page is "id > last id seen", so a page costs
+    // the same at the end of a large table as at the start, and no connection is held between pages
+    private final class DevicePageIterator implements Iterator<DeviceRecord> {
+        private final int pageSize;
+        private final ArrayDeque<DeviceRecord> page = new ArrayDeque<>();
+        private long lastId = Long.MIN_VALUE;
+        private boolean exhausted;
+
+        DevicePageIterator(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (page.isEmpty() && !exhausted) {
+                fetchPage();
+            }
+            return !page.isEmpty();
+        }
+
+        @Override
+        public DeviceRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.poll();
+        }
+
+        private void fetchPage() {
+            Connection reader = borrowReader();
+            int rows = 0;
+            try {
+                PreparedStatement pstmt = pageStatements.get(reader);
+                pstmt.setLong(1, lastId);
+                pstmt.setInt(2, pageSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong(1);
+                        String type = rs.getString(3);
+                        double power = rs.getDouble(8);
+                        if (rs.wasNull()) {
+                            power = defaultPower(type);
+                        }
+                        page.add(new DeviceRecord(rs.getString(2), type, rs.getInt(4) == 1, power,
+                                rs.getInt(5), rs.getDouble(6), rs.getInt(7)));
+                        rows++;
                     }
-                    default -> System.out.println("Unknown device type: " + type);
                 }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            } finally {
+                readers.add(reader);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            exhausted = rows < pageSize;
         }
-        return devices;
+    }
+
+    // Wattage for rows saved before the powerConsumption column existed
+    private static double defaultPower(String type) {
+        return switch (type) {
+            case "SmartLight" -> 10; // example wattage
+            case "SmartHVAC" -> 1000; // example wattage
+            case "SmartRefrigerator" -> 150; // example wattage
+            default -> 0;
+        };
+    }
+
+    // Single round-trip upsert; the unique index on name resolves insert vs update
+    private static final String UPSERT_SQL = """
+            INSERT INTO devices (name, type, status, brightness, targetTemperature, fanSpeed, powerConsumption)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(name) DO UPDATE SET
+                status = excluded.status,
+                powerConsumption = excluded.powerConsumption,
+                brightness = excluded.brightness,
+                targetTemperature = excluded.targetTemperature,
+                fanSpeed = excluded.fanSpeed;
+        """;
+
+    @Override
+    public void save(EnergyConsumer device) {
+        saveDevice(device);
     }
 
     public void saveDevice(EnergyConsumer device) {
-        String selectSQL = "SELECT id FROM devices WHERE name = ?";
-        try (PreparedStatement selectStmt = conn.prepareStatement(selectSQL)) {
-            selectStmt.setString(1, device.getName());
-            ResultSet rs = selectStmt.executeQuery();
+        synchronized (writeLock) {
+            try {
+                bindUpsert(upsertStmt, DeviceRecord.of(device));
+                upsertStmt.executeUpdate();
+                System.out.println("Saved device: " + device.getName());
 
-            if (rs.next()) {
-                int id = rs.getInt("id");
-                updateDevice(device, id);
-            } else {
-                insertDevice(device);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not save device " + device.getName() + " to " + url, e);
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 
-    private void insertDevice(EnergyConsumer device) {
-        String insertSQL = """
-            INSERT INTO devices (name, type, status, brightness, targetTemperature, fanSpeed)
-            VALUES (?, ?, ?, ?, ?, ?);
-        """;
+    // Saves many device snapshots in one transaction. A failed batch is rolled back and rethrown as an
+    // IllegalStateException, so callers such as DeviceWriteBehind can keep the records and retry.
+    @Override
+    public void saveAll(List<DeviceRecord> records) {
+        synchronized (writeLock) {
+            try {
+                conn.setAutoCommit(false);
+                try {
+                    for (DeviceRecord record : records) {
+                        bindUpsert(upsertStmt, record);
+                        upsertStmt.addBatch();
+                    }
+                    upsertStmt.executeBatch();
+                    conn.commit();
+                    System.out.println("Saved " + records.size() + " devices.");
+                } catch (SQLException e) {
+                    upsertStmt.clearBatch();
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not save " + records.size() + " devices to " + url, e);
+            }
+        }
+    }
 
-        try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
-            pstmt.setString(1, device.getName());
-            pstmt.setString(2, getDeviceType(device));
-            pstmt.setInt(3, device.isStatus() ? 1 : 0);
+    // Writes a batch of telemetry rows and folds them into the hourly and daily rollups, all in one transaction
+    public void saveTelemetry(TelemetryBatch batch) {
+        synchronized (writeLock) {
+            try {
+                conn.setAutoCommit(false);
+                try {
+                    int size = batch.size();
+                    int row = 0;
+                    for (; row + TELEMETRY_ROWS_PER_INSERT <= size; row += TELEMETRY_ROWS_PER_INSERT) {
+                        int index = 1;
+                        for (int i = row; i < row + TELEMETRY_ROWS_PER_INSERT; i++) {
+                            index = bindTelemetry(telemetryStmt, index, batch, i);
+                        }
+                        telemetryStmt.addBatch();
+                    }
+                    telemetryStmt.executeBatch();
+                    for (; row < size; row++) {
+                        bindTelemetry(telemetryRowStmt, 1, batch, row);
+                        telemetryRowStmt.addBatch();
+                    }
+                    telemetryRowStmt.executeBatch();
 
-            if (device instanceof SmartLight light) {
-                pstmt.setInt(4, light.getBrightness());
-                pstmt.setNull(5, Types.REAL);
-                pstmt.setNull(6, Types.INTEGER);
-            } else if (device instanceof SmartHVAC hvac) {
-                pstmt.setNull(4, Types.INTEGER);
-                pstmt.setDouble(5, hvac.getTargetTemperature());
-                pstmt.setInt(6, hvac.getFanSpeed());
-            } else {
-                pstmt.setNull(4, Types.INTEGER);
-                pstmt.setNull(5, Types.REAL);
-                pstmt.setNull(6, Types.INTEGER);
+                    updateRollup(hourlyRollupStmt, batch, 3600);
+                    updateRollup(dailyRollupStmt, batch, 86400);
+                    conn.commit();
+                } catch (SQLException e) {
+                    telemetryStmt.clearBatch();
+                    telemetryRowStmt.clearBatch();
+                    hourlyRollupStmt.clearBatch();
+                    dailyRollupStmt.clearBatch();
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-            pstmt.executeUpdate();
-            System.out.println("Inserted device: " + device.getName());
+        }
+    }
 
+    // Energy in kWh by device type for each day in [fromEpochSecond, toEpochSecond), read from the daily rollup
+    public Map<Long, Map<String, Double>> loadDailyEnergyByType(long fromEpochSecond, long toEpochSecond) {
+        Map<Long, Map<String, Double>> days = new TreeMap<>();
+        Connection reader = borrowReader();
+        try {
+            PreparedStatement pstmt = dailyEnergyStatements.get(reader);
+            pstmt.setLong(1, Math.floorDiv(fromEpochSecond, 86400) * 86400);
+            pstmt.setLong(2, toEpochSecond);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    days.computeIfAbsent(rs.getLong("day"), day -> new TreeMap<>())
+                            .put(rs.getString("type"), rs.getDouble("energy"));
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            readers.add(reader);
         }
+        return days;
     }
 
-    private void updateDevice(EnergyConsumer device, int id) {
-        String updateSQL = """
-            UPDATE devices
-            SET status = ?, brightness = ?, targetTemperature = ?, fanSpeed = ?
-            WHERE id = ?;
-        """;
-
-        try (PreparedStatement pstmt = conn.prepareStatement(updateSQL)) {
-            pstmt.setInt(1, device.isStatus() ? 1 : 0);
+    private static String telemetryInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO telemetry (device, type, timestamp, energy, generation, cost) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
 
-            if (device instanceof SmartLight light) {
-                pstmt.setInt(2, light.getBrightness());
-                pstmt.setNull(3, Types.REAL);
-                pstmt.setNull(4, Types.INTEGER);
-            } else if (device instanceof SmartHVAC hvac) {
-                pstmt.setNull(2, Types.INTEGER);
-                pstmt.setDouble(3, hvac.getTargetTemperature());
-                pstmt.setInt(4, hvac.getFanSpeed());
-            } else {
-                pstmt.setNull(2, Types.INTEGER);
-                pstmt.setNull(3, Types.REAL);
-                pstmt.setNull(4, Types.INTEGER);
-            }
+    private static String rollupUpsertSql(String table, String bucketColumn) {
+        return "INSERT INTO " + table + " (" + bucketColumn + ", type, energy, generation, cost, samples) "
+                + "VALUES (?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT(" + bucketColumn + ", type) DO UPDATE SET "
+                + "energy = energy + excluded.energy, "
+                + "generation = generation + excluded.generation, "
+                + "cost = cost + excluded.cost, "
+                + "samples = samples + excluded.samples";
+    }
 
-            pstmt.setInt(5, id);
-            pstmt.executeUpdate();
-            System.out.println("Updated device: " + device.getName());
+    private int bindTelemetry(PreparedStatement pstmt, int index, TelemetryBatch batch, int row) throws SQLException {
+        pstmt.setString(index++, batch.getDevice(row));
+        pstmt.setString(index++, batch.getType(row));
+        pstmt.setLong(index++, batch.getTimestamp(row));
+        pstmt.setDouble(index++, batch.getEnergy(row));
+        pstmt.setDouble(index++, batch.getGeneration(row));
+        pstmt.setDouble(index++, batch.getCost(row));
+        return index;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    // Sums the batch per (time bucket, device type) and adds the sums to a rollup table
+    private void updateRollup(PreparedStatement pstmt, TelemetryBatch batch, long bucketSeconds) throws SQLException {
+        Map<Long, Map<String, double[]>> sums = new HashMap<>();
+        for (int row = 0; row < batch.size(); row++) {
+            long bucket = Math.floorDiv(batch.getTimestamp(row), bucketSeconds) * bucketSeconds;
+            double[] sum = sums.computeIfAbsent(bucket, b -> new HashMap<>())
+                    .computeIfAbsent(batch.getType(row), t -> new double[4]);
+            sum[0] += batch.getEnergy(row);
+            sum[1] += batch.getGeneration(row);
+            sum[2] += batch.getCost(row);
+            sum[3]++;
+        }
+        for (Map.Entry<Long, Map<String, double[]>> bucket : sums.entrySet()) {
+            for (Map.Entry<String, double[]> type : bucket.getValue().entrySet()) {
+                double[] sum = type.getValue();
+                pstmt.setLong(1, bucket.getKey());
+                pstmt.setString(2, type.getKey());
+                pstmt.setDouble(3, sum[0]);
+                pstmt.setDouble(4, sum[1]);
+                pstmt.setDouble(5, sum[2]);
+                pstmt.setLong(6, (long) sum[3]);
+                pstmt.addBatch();
+            }
         }
+        pstmt.executeBatch();
     }
 
-    private String getDeviceType(EnergyConsumer device) {
-        if (device instanceof SmartLight) return "SmartLight";
-        if (device instanceof SmartHVAC) return "SmartHVAC";
-        if (device instanceof SmartRefrigerator) return "SmartRefrigerator";
-        return "Unknown";
+    private void bindUpsert(PreparedStatement pstmt, DeviceRecord record) throws SQLException {
+        pstmt.setString(1, record.getName());
+        pstmt.setString(2, record.getType());
+        pstmt.setInt(3, record.isStatus() ? 1 : 0);
+        pstmt.setDouble(7, record.getPowerConsumption());
+
+        switch (record.getType()) {
+            case "SmartLight" -> {
+                pstmt.setInt(4, record.getBrightness());
+                pstmt.setNull(5, Types.REAL);
+                pstmt.setNull(6, Types.INTEGER);
+            }
+            case "SmartHVAC" -> {
+                pstmt.setNull(4, Types.INTEGER);
+                pstmt.setDouble(5, record.getTargetTemperature());
+                pstmt.setInt(6, record.getFanSpeed());
+            }
+            default -> {
+                pstmt.setNull(4, Types.INTEGER);
+                pstmt.setNull(5, Types.REAL);
+                pstmt.setNull(6, Types.INTEGER);
+            }
+        }
     }
 
+    @Override
     public void close() {
-        try {
-            if (conn != null && !conn.isClosed()) {
-                conn.close();
-                System.out.println("SQLite connection closed.");
+        synchronized (writeLock) {
+            try {
+                for (Connection reader : pageStatements.keySet()) {
+                    reader.close(); // also closes its cached statement
+                }
+                if (conn != null && !conn.isClosed()) {
+                    conn.close();
+                    System.out.println("SQLite connection closed.");
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 }
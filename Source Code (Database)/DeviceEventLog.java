@@ -0,0 +1,270 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous log for device state changes.
+// Device setters only enqueue an event on a bounded lock-free queue; a background writer thread
+// drains the queue in batches and writes them to the console or a file, so bulk state changes
+// never wait on console or disk I/O on the simulation thread or the Swing EDT.
+public class DeviceEventLog implements AutoCloseable {
+
+    // Severity of a device event
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    // What to do when the queue is full
+    public enum OverflowPolicy {
+        DROP_NEWEST, // discard the event being logged
+        DROP_OLDEST, // discard the oldest queued event to make room
+        BLOCK        // wait until the writer has made room (backpressure)
+    }
+
+    private static final int DEFAULT_CAPACITY = 65_536;
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final long IDLE_PARK_NANOS = 1_000_000L; // 1 ms
+
+    private static volatile DeviceEventLog defaultLog;
+
+    private final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy policy;
+    private final Writer out;
+    private final boolean closeOut;
+    private final boolean timestamps;
+    private final Thread writer;
+    private volatile Level level;
+    private volatile boolean running = true;
+
+    // One queued log record; the output line is only assembled on the writer thread
+    private static final class Event {
+        final long timestamp;
+        final Level level;
+        final String deviceName;
+        final String message;
+
+        Event(long timestamp, Level level, String deviceName, String message) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.deviceName = deviceName;
+            this.message = message;
+        }
+    }
+
+    // Constructor for a log writing to the given writer
+    public DeviceEventLog(Writer out, boolean closeOut, boolean timestamps, Level level,
+                          int capacity, int batchSize, OverflowPolicy policy) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        }
+        this.out = out;
+        this.closeOut = closeOut;
+        this.timestamps = timestamps;
+        this.level = level;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.policy = policy;
+        this.writer = new Thread(this::drainLoop, "device-event-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Creates a log that batches events to standard output
+    public static DeviceEventLog toConsole(Level level, OverflowPolicy policy) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        return new DeviceEventLog(out, false, false, level, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, policy);
+    }
+
+    // Creates a log that appends events to a file
+    public static DeviceEventLog toFile(String path, Level level, OverflowPolicy policy) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path, true), StandardCharsets.UTF_8));
+        return new DeviceEventLog(out, true, true, level, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, policy);
+    }
+
+    // The log used by the device classes; defaults to the console at INFO level.
+    // A full queue drops the oldest events (counted in getDroppedCount()) so a burst of state changes
+    // never stalls the simulation thread or the Swing EDT.
+    public static DeviceEventLog getDefault() {
+        DeviceEventLog log = defaultLog;
+        if (log == null) {
+            synchronized (DeviceEventLog.class) {
+                log = defaultLog;
+                if (log == null) {
+                    log = toConsole(Level.INFO, OverflowPolicy.DROP_OLDEST);
+                    DeviceEventLog shutdownLog = log;
+                    Runtime.getRuntime().addShutdownHook(new Thread(shutdownLog::close, "device-event-log-shutdown"));
+                    defaultLog = log;
+                }
+            }
+        }
+        return log;
+    }
+
+    // Replaces the log used by the device classes; the previous log is flushed and closed
+    public static void setDefault(DeviceEventLog log) {
+        DeviceEventLog previous;
+        synchronized (DeviceEventLog.class) {
+            previous = defaultLog;
+            defaultLog = log;
+        }
+        if (previous != null && previous != log) {
+            previous.close();
+        }
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    // Whether events at the given level are currently recorded; lets callers skip building messages
+    public boolean isEnabled(Level eventLevel) {
+        return eventLevel.ordinal() >= level.ordinal();
+    }
+
+    // Number of events discarded because the queue was full
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void debug(String deviceName, String message) {
+        log(Level.DEBUG, deviceName, message);
+    }
+
+    public void info(String deviceName, String message) {
+        log(Level.INFO, deviceName, message);
+    }
+
+    public void warn(String deviceName, String message) {
+        log(Level.WARN, deviceName, message);
+    }
+
+    // Queues an event for the writer thread
+    public void log(Level eventLevel, String deviceName, String message) {
+        if (!isEnabled(eventLevel) || !running) {
+            return;
+        }
+        Event event = new Event(System.currentTimeMillis(), eventLevel, deviceName, message);
+        while (true) {
+            int size = queued.get();
+            if (size < capacity) {
+                if (queued.compareAndSet(size, size + 1)) {
+                    queue.offer(event);
+                    return;
+                }
+                continue;
+            }
+            // Queue is full
+            switch (policy) {
+                case DROP_NEWEST -> {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                case DROP_OLDEST -> {
+                    if (queue.poll() != null) {
+                        queue.offer(event); // reuse the slot freed by the discarded event
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                }
+                case BLOCK -> {
+                    if (Thread.currentThread() == writer || !running) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    LockSupport.unpark(writer);
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    // Blocks until every event queued so far has been written
+    public void flush() {
+        while (queued.get() > 0 && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    // Writes the remaining events and stops the writer thread
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        flush();
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writer thread: drain up to batchSize events, write them in one go, then flush the batch
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 64);
+        while (running || queued.get() > 0) {
+            int count = 0;
+            Event event;
+            while (count < batchSize && (event = queue.poll()) != null) {
+                format(batch, event);
+                count++;
+            }
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                out.append(batch);
+                out.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            batch.setLength(0);
+            queued.addAndGet(-count);
+        }
+        try {
+            long lost = dropped.get();
+            if (lost > 0) {
+                out.append("[WARN] ").append(String.valueOf(lost)).append(" device events dropped because the log queue was full")
+                        .append(System.lineSeparator());
+            }
+            if (closeOut) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Formats one event; on the console INFO events print exactly like the old System.out messages
+    private void format(StringBuilder sb, Event event) {
+        if (timestamps) {
+            sb.append(Instant.ofEpochMilli(event.timestamp)).append(' ');
+        }
+        if (event.level != Level.INFO) {
+            sb.append('[').append(event.level).append("] ");
+        }
+        if (event.deviceName != null) {
+            sb.append(event.deviceName).append(' ');
+        }
+        sb.append(event.message).append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.PriorityQueue;
+
+// Discrete-event scheduler for device state changes.
+// Commands (turn on/off, dim, set fan speed, ...) are queued by timestamp; between two events every
+// device and renewable source holds its state, so energy is integrated analytically over the whole gap
+// and a long, mostly idle horizon costs O(events) instead of O(steps).
+// Gaps go through the simulator's batteries, and are priced with its tariff when one is set (gaps are
+// split where the time-of-use price or the billing period changes), so results match a time-series run.
+public class DeviceEventScheduler {
+
+    // A timestamped command; ties are broken by insertion order
+    private static final class ScheduledCommand implements Comparable<ScheduledCommand> {
+        final double time; // in hours
+        final long sequence;
+        final Runnable command;
+
+        ScheduledCommand(double time, long sequence, Runnable command) {
+            this.time = time;
+            this.sequence = sequence;
+            this.command = command;
+        }
+
+        @Override
+        public int compareTo(ScheduledCommand other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<ScheduledCommand> queue = new PriorityQueue<>();
+    private long nextSequence;
+
+    // Schedules an arbitrary command at the given time (in hours)
+    public void schedule(double time, Runnable command) {
+        if (Double.isNaN(time)) {
+            throw new IllegalArgumentException("Event time must be a number");
+        }
+        queue.add(new ScheduledCommand(time, nextSequence++, command));
+    }
+
+    public void turnOn(double time, EnergyConsumer device) {
+        schedule(time, device::turnOn);
+    }
+
+    public void turnOff(double time, EnergyConsumer device) {
+        schedule(time, device::turnOff);
+    }
+
+    public void dim(double time, SmartLight light, int level) {
+        schedule(time, () -> light.dim(level));
+    }
+
+    public void setFanSpeed(double time, SmartHVAC hvac, int fanSpeed) {
+        schedule(time, () -> hvac.setFanSpeed(fanSpeed));
+    }
+
+    public void setTargetTemperature(double time, SmartHVAC hvac, double targetTemperature) {
+        schedule(time, () -> hvac.setTargetTemperature(targetTemperature));
+    }
+
+    public void setSunlightIntensity(double time, SolarPanel panel, double sunlightIntensity) {
+        schedule(time, () -> panel.setSunlightIntensity(sunlightIntensity));
+    }
+
+    public void setWindSpeed(double time, WindTurbine turbine, double windSpeed) {
+        schedule(time, () -> turbine.setWindSpeed(windSpeed));
+    }
+
+    // Number of commands still waiting to run
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    // Removes every pending command
+    public void clear() {
+        queue.clear();
+    }
+
+    // Runs the simulator from startHour to endHour, applying queued commands in time order.
+    // Commands due before startHour are applied at startHour; commands at or after endHour stay queued.
+    public SimulationResult run(SmartHomeSimulator simulator, double startHour, double endHour) {
+        if (endHour < startHour) {
+            throw new IllegalArgumentException("Invalid horizon: start=" + startHour + ", end=" + endHour);
+        }
+        Tariff tariff = simulator.getTariff();
+        Tariff.Meter meter = tariff != null ? tariff.meter() : null;
+        double totalEnergyConsumption = 0.0;
+        double totalRenewableEnergy = 0.0;
+        double netEnergyConsumption = 0.0;
+        double cost = 0.0;
+
+        double time = startHour;
+        while (time < endHour) {
+            // Apply everything due now
+            while (!queue.isEmpty() && queue.peek().time <= time) {
+                queue.poll().command.run();
+            }
+            double next = queue.isEmpty() ? endHour : Math.min(queue.peek().time, endHour);
+            if (tariff != null) {
+                next = Math.min(next, tariff.nextPriceChange(time));
+            }
+
+            // State and price are constant until the next event: integrate the whole gap at once
+            double duration = next - time;
+            double used = simulator.getTotalPower() * duration / 1000.0;
+            double generated = simulator.getRenewablePower() * duration / 1000.0;
+            double flow = simulator.dispatchBatteries(used - generated, duration);
+            double net = Math.max(0, flow);
+            totalEnergyConsumption += used;
+            totalRenewableEnergy += generated;
+            netEnergyConsumption += net;
+            // Price at the middle of the gap, clear of rounding at its edges
+            cost += meter != null ? meter.cost(time + duration / 2, tariff.priceAt(time + duration / 2), flow)
+                    : net * simulator.getElectricityPricePerKWh();
+            time = next;
+        }
+
+        return new SimulationResult(endHour - startHour, totalEnergyConsumption, totalRenewableEnergy,
+                netEnergyConsumption, cost, SimulationResult.NO_DEVICE_ENERGY);
+    }
+}
@@ -0,0 +1,406 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Columnar (struct-of-arrays) store for all devices of a smart home.
+// Power and per-type parameters live in primitive arrays and the on/off status in a bitset,
+// so totals can be reduced in one tight loop instead of calling each device object in turn.
+// Device objects are only handles onto a row; rows added in bulk get an object lazily when asked for.
+public class DeviceFleet {
+    // Device type codes stored in the type column
+    public static final byte TYPE_GENERIC = 0;
+    public static final byte TYPE_LIGHT = 1;
+    public static final byte TYPE_HVAC = 2;
+    public static final byte TYPE_REFRIGERATOR = 3;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private String[] names;
+    private byte[] types;
+    private double[] power; // in Watts
+    private long[] status; // bitset, one bit per device (1 = on)
+    private int[] brightness; // SmartLight only, 0-100
+    private boolean[] occupancySensor; // SmartLight only
+    private double[] targetTemperature; // SmartHVAC only, in Celsius
+    private int[] fanSpeed; // SmartHVAC only, 0-3
+    private String[] rooms; // room of each device (null = unassigned)
+    private EnergyConsumer[] objects; // materialized device handles (null until needed)
+    private final LoadAggregator aggregator = new LoadAggregator();
+
+    private final List<EnergyConsumer> view = new DeviceListView();
+
+    // Constructor for an empty fleet
+    public DeviceFleet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    // Constructor for a fleet with room for the given number of devices
+    public DeviceFleet(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        names = new String[capacity];
+        types = new byte[capacity];
+        power = new double[capacity];
+        status = new long[wordsFor(capacity)];
+        brightness = new int[capacity];
+        occupancySensor = new boolean[capacity];
+        targetTemperature = new double[capacity];
+        fanSpeed = new int[capacity];
+        rooms = new String[capacity];
+        objects = new EnergyConsumer[capacity];
+    }
+
+    // Number of devices in the fleet
+    public int size() {
+        return size;
+    }
+
+    // Makes sure the columns can hold at least the given number of devices
+    public void ensureCapacity(int capacity) {
+        if (capacity <= power.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, power.length * 2);
+        names = Arrays.copyOf(names, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        power = Arrays.copyOf(power, newCapacity);
+        status = Arrays.copyOf(status, wordsFor(newCapacity));
+        brightness = Arrays.copyOf(brightness, newCapacity);
+        occupancySensor = Arrays.copyOf(occupancySensor, newCapacity);
+        targetTemperature = Arrays.copyOf(targetTemperature, newCapacity);
+        fanSpeed = Arrays.copyOf(fanSpeed, newCapacity);
+        rooms = Arrays.copyOf(rooms, newCapacity);
+        objects = Arrays.copyOf(objects, newCapacity);
+    }
+
+    // Adds an existing device object and binds it to its new row
+    public int add(EnergyConsumer device) {
+        int slot = appendRow(device.getName(), typeOf(device));
+        objects[slot] = device;
+        device.bind(this, slot);
+        sync(slot, device);
+        return slot;
+    }
+
+    // Adds a smart light row (without an occupancy sensor) without creating a device object
+    public int addLight(String name, double powerConsumption, boolean on, int lightBrightness) {
+        return addLight(name, powerConsumption, on, lightBrightness, false);
+    }
+
+    // Adds a smart light row without creating a device object
+    public int addLight(String name, double powerConsumption, boolean on, int lightBrightness, boolean hasOccupancySensor) {
+        int slot = appendRow(name, TYPE_LIGHT);
+        power[slot] = powerConsumption;
+        setStatusBit(slot, on);
+        brightness[slot] = lightBrightness;
+        occupancySensor[slot] = hasOccupancySensor;
+        aggregator.add(TYPE_LIGHT, null, load(slot));
+        return slot;
+    }
+
+    // Adds a smart HVAC row without creating a device object
+    public int addHVAC(String name, double powerConsumption, boolean on, double target, int fan) {
+        int slot = appendRow(name, TYPE_HVAC);
+        power[slot] = powerConsumption;
+        setStatusBit(slot, on);
+        targetTemperature[slot] = target;
+        fanSpeed[slot] = fan;
+        aggregator.add(TYPE_HVAC, null, load(slot));
+        return slot;
+    }
+
+    // Adds a smart refrigerator row without creating a device object
+    public int addRefrigerator(String name, double powerConsumption, boolean on) {
+        int slot = appendRow(name, TYPE_REFRIGERATOR);
+        power[slot] = powerConsumption;
+        setStatusBit(slot, on);
+        aggregator.add(TYPE_REFRIGERATOR, null, load(slot));
+        return slot;
+    }
+
+    // Copies the current state of a bound device object into its row
+    void sync(int slot, EnergyConsumer device) {
+        double oldLoad = load(slot);
+        String oldRoom = rooms[slot];
+        power[slot] = device.getPowerConsumption();
+        setStatusBit(slot, device.isStatus());
+        rooms[slot] = device.getRoom();
+        aggregator.update(types[slot], oldRoom, oldLoad, rooms[slot], load(slot));
+        if (device instanceof SmartLight light) {
+            brightness[slot] = light.getBrightness();
+            occupancySensor[slot] = light.hasOccupancySensor();
+        } else if (device instanceof SmartHVAC hvac) {
+            targetTemperature[slot] = hvac.getTargetTemperature();
+            fanSpeed[slot] = hvac.getFanSpeed();
+        }
+    }
+
+    // Returns the device object for a row, creating it on first access
+    public EnergyConsumer get(int slot) {
+        checkSlot(slot);
+        EnergyConsumer device = objects[slot];
+        if (device == null) {
+            device = materialize(slot);
+            objects[slot] = device;
+            device.bind(this, slot);
+        }
+        return device;
+    }
+
+    // Column getters
+    public String getName(int slot) {
+        checkSlot(slot);
+        return names[slot];
+    }
+
+    public byte getType(int slot) {
+        checkSlot(slot);
+        return types[slot];
+    }
+
+    public double getPower(int slot) {
+        checkSlot(slot);
+        return power[slot];
+    }
+
+    public boolean isOn(int slot) {
+        checkSlot(slot);
+        return (status[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    public int getBrightness(int slot) {
+        checkSlot(slot);
+        return brightness[slot];
+    }
+
+    public boolean hasOccupancySensor(int slot) {
+        checkSlot(slot);
+        return occupancySensor[slot];
+    }
+
+    public double getTargetTemperature(int slot) {
+        checkSlot(slot);
+        return targetTemperature[slot];
+    }
+
+    public int getFanSpeed(int slot) {
+        checkSlot(slot);
+        return fanSpeed[slot];
+    }
+
+    public String getRoom(int slot) {
+        checkSlot(slot);
+        return rooms[slot];
+    }
+
+    // Moves a device to another room
+    public void setRoom(int slot, String room) {
+        checkSlot(slot);
+        if (objects[slot] != null) {
+            objects[slot].setRoom(room); // publishes back through sync()
+            return;
+        }
+        aggregator.update(types[slot], rooms[slot], load(slot), room, load(slot));
+        rooms[slot] = room;
+    }
+
+    // Running load totals for the home, per type and per room (O(1) reads)
+    public LoadAggregator getLoadAggregator() {
+        return aggregator;
+    }
+
+    // Energy used by a single device over the duration (in hours), in kWh
+    public double getEnergyConsumption(int slot, double duration) {
+        return isOn(slot) ? (power[slot] * duration) / 1000.0 : 0.0;
+    }
+
+    // Sum of the power draw of every device that is on, in Watts
+    public double totalPower() {
+        double total = 0.0;
+        int words = wordsFor(size);
+        for (int w = 0; w < words; w++) {
+            long bits = status[w];
+            int base = w << 6;
+            while (bits != 0) {
+                total += power[base + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return total;
+    }
+
+    // Total energy used by the fleet over the duration (in hours), in kWh
+    public double totalEnergyConsumption(double duration) {
+        return (totalPower() * duration) / 1000.0;
+    }
+
+    // Writes the energy used by each device over the duration (in hours) into out[0..size), in kWh
+    public void fillEnergyConsumption(double duration, double[] out) {
+        if (out.length < size) {
+            throw new IllegalArgumentException("Output array too small: " + out.length + " < " + size);
+        }
+        double factor = duration / 1000.0;
+        for (int w = 0, words = wordsFor(size); w < words; w++) {
+            long bits = status[w];
+            int base = w << 6;
+            int end = Math.min(base + 64, size);
+            for (int i = base; i < end; i++) {
+                out[i] = power[i] * factor * ((bits >>> (i - base)) & 1L);
+            }
+        }
+    }
+
+    // Removes every device from the fleet
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            if (objects[i] != null) {
+                objects[i].bind(null, -1);
+                objects[i] = null;
+            }
+            names[i] = null;
+            rooms[i] = null;
+        }
+        Arrays.fill(status, 0L);
+        size = 0;
+        aggregator.reset();
+    }
+
+    // Removes the device at the given row, shifting later rows down by one
+    public EnergyConsumer remove(int slot) {
+        EnergyConsumer removed = get(slot);
+        removed.bind(null, -1);
+        aggregator.remove(types[slot], rooms[slot], load(slot));
+        int moved = size - slot - 1;
+        for (int i = slot; i < slot + moved; i++) {
+            setStatusBit(i, isOn(i + 1));
+        }
+        System.arraycopy(names, slot + 1, names, slot, moved);
+        System.arraycopy(types, slot + 1, types, slot, moved);
+        System.arraycopy(power, slot + 1, power, slot, moved);
+        System.arraycopy(brightness, slot + 1, brightness, slot, moved);
+        System.arraycopy(occupancySensor, slot + 1, occupancySensor, slot, moved);
+        System.arraycopy(targetTemperature, slot + 1, targetTemperature, slot, moved);
+        System.arraycopy(fanSpeed, slot + 1, fanSpeed, slot, moved);
+        System.arraycopy(rooms, slot + 1, rooms, slot, moved);
+        System.arraycopy(objects, slot + 1, objects, slot, moved);
+        size--;
+        setStatusBit(size, false);
+        names[size] = null;
+        rooms[size] = null;
+        objects[size] = null;
+        for (int i = slot; i < size; i++) {
+            if (objects[i] != null) {
+                objects[i].bind(this, i);
+            }
+        }
+        return removed;
+    }
+
+    // Live List view of the fleet, used by the existing addDevice/getDevices API
+    public List<EnergyConsumer> asList() {
+        return view;
+    }
+
+    // Maps a device object to its type code
+    static byte typeOf(EnergyConsumer device) {
+        if (device instanceof SmartLight) return TYPE_LIGHT;
+        if (device instanceof SmartHVAC) return TYPE_HVAC;
+        if (device instanceof SmartRefrigerator) return TYPE_REFRIGERATOR;
+        return TYPE_GENERIC;
+    }
+
+    private int appendRow(String name, byte type) {
+        ensureCapacity(size + 1);
+        int slot = size++;
+        names[slot] = name;
+        types[slot] = type;
+        power[slot] = 0.0;
+        brightness[slot] = 0;
+        occupancySensor[slot] = false;
+        targetTemperature[slot] = 0.0;
+        fanSpeed[slot] = 0;
+        rooms[slot] = null;
+        objects[slot] = null;
+        return slot;
+    }
+
+    // Current load of one row: its power when on, 0 when off
+    private double load(int slot) {
+        return (status[slot >>> 6] & (1L << slot)) != 0 ? power[slot] : 0.0;
+    }
+
+    // Builds a device object for a row that was added in bulk, without the printing setters
+    private EnergyConsumer materialize(int slot) {
+        EnergyConsumer device;
+        switch (types[slot]) {
+            case TYPE_LIGHT -> {
+                SmartLight light = new SmartLight(names[slot], power[slot], occupancySensor[slot]);
+                light.applyBrightness(brightness[slot]);
+                device = light;
+            }
+            case TYPE_HVAC -> {
+                SmartHVAC hvac = new SmartHVAC(names[slot], power[slot]);
+                hvac.applySettings(targetTemperature[slot], fanSpeed[slot]);
+                device = hvac;
+            }
+            case TYPE_REFRIGERATOR -> device = new SmartRefrigerator(names[slot], power[slot]);
+            default -> throw new IllegalStateException("Cannot materialize device of unknown type: " + names[slot]);
+        }
+        device.applyState(power[slot], isOn(slot));
+        device.applyRoom(rooms[slot]);
+        return device;
+    }
+
+    private void setStatusBit(int slot, boolean on) {
+        if (on) {
+            status[slot >>> 6] |= 1L << slot;
+        } else {
+            status[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Device slot " + slot + " out of range (size " + size + ")");
+        }
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    // List view backed by the fleet columns
+    private class DeviceListView extends AbstractList<EnergyConsumer> {
+        @Override
+        public EnergyConsumer get(int index) {
+            return DeviceFleet.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void add(int index, EnergyConsumer device) {
+            if (index != size) {
+                throw new UnsupportedOperationException("Devices can only be appended to the fleet");
+            }
+            DeviceFleet.this.add(device);
+            modCount++;
+        }
+
+        @Override
+        public EnergyConsumer remove(int index) {
+            EnergyConsumer removed = DeviceFleet.this.remove(index);
+            modCount++;
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            DeviceFleet.this.clear();
+            modCount++;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Append-only journal of device state changes, an alternative to DeviceDatabase that keeps history.
+// Every change is one fixed-size record written into a memory-mapped file, so appends are plain memory
+// stores. A background thread forces written records to disk in groups (group commit): callers that
+// need durability wait for the next force instead of paying for one each. compact() folds old history
+// into one record per device, and stateAt() rebuilds every device as it was at any point in time.
+// JournalDeviceStore wraps it as a DeviceStore.
+//
+// File layout (little endian): a 64-byte header (magic "DJRN", version, record size, created millis),
+// then 64-byte records:
+//   0  long  timestamp (epoch millis)     15 byte  name chunk length (name records)
+//   8  int   device id                    16 state: double power, double target temperature,
+//   12 byte  kind (1 state, 2 name)          int brightness, int fan speed; name: up to 44 UTF-8 bytes
+//   13 byte  device type (DeviceFleet)    60 int   CRC-32C of bytes 0-59
+//   14 byte  flags (bit 0 on)
+// A device's name is written as one or more name records before its first state record.
+public class DeviceJournal implements AutoCloseable {
+    static final int MAGIC = 0x4E524A44; // "DJRN" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+
+    private static final byte KIND_STATE = 1;
+    private static final byte KIND_NAME = 2;
+    private static final byte FLAG_ON = 1;
+    private static final int NAME_CHUNK = 44;
+    private static final int CHECKED_BYTES = 60;
+    private static final long SEGMENT_SIZE = 64L << 20; // 64 MB, a multiple of RECORD_SIZE
+    private static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 5;
+
+    private final Path path;
+    private final long commitIntervalMillis;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final CRC32C crc = new CRC32C();
+    private long end; // file offset of the next record
+    private long durable; // file offset up to which records have been forced to disk
+    private long generation; // bumped whenever compact() rewrites the file, so offsets from before are void
+    private long compacted; // bytes removed by compact() so far; journal positions are file offsets plus this
+    private boolean closed;
+    private final Thread committer;
+
+    private DeviceJournal(Path path, long commitIntervalMillis) throws IOException {
+        this.path = path;
+        this.commitIntervalMillis = commitIntervalMillis;
+        openFile();
+        this.committer = new Thread(this::commitLoop, "device-journal-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    // Opens (or creates) a journal, forcing appended records to disk every 5 ms
+    public static DeviceJournal open(Path path) throws IOException {
+        return open(path, DEFAULT_COMMIT_INTERVAL_MILLIS);
+    }
+
+    // Opens (or creates) a journal with the given group-commit interval
+    public static DeviceJournal open(Path path, long commitIntervalMillis) throws IOException {
+        if (commitIntervalMillis <= 0) {
+            throw new IllegalArgumentException("commitIntervalMillis must be positive");
+        }
+        return new DeviceJournal(path, commitIntervalMillis);
+    }
+
+    // Records the current state of a device, timestamped now
+    public long append(EnergyConsumer device) {
+        return append(System.currentTimeMillis(), DeviceRecord.of(device));
+    }
+
+    // Records a device state at the given time (epoch millis); returns the journal position after it.
+    // The record is visible to stateAt() immediately and durable once awaitDurable(position) returns.
+    // Positions keep growing across compact(), so one taken before a compaction stays valid.
+    public synchronized long append(long timestamp, DeviceRecord record) {
+        checkOpen();
+        Integer id = ids.get(record.getName());
+        if (id == null) {
+            id = names.size();
+            ids.put(record.getName(), id);
+            names.add(record.getName());
+            writeName(timestamp, id, typeCode(record.getType()), record.getName());
+        }
+        ByteBuffer slot = reserve();
+        slot.putLong(0, timestamp);
+        slot.putInt(8, id);
+        slot.put(12, KIND_STATE);
+        slot.put(13, typeCode(record.getType()));
+        slot.put(14, record.isStatus() ? FLAG_ON : 0);
+        slot.putDouble(16, record.getPowerConsumption());
+        slot.putDouble(24, record.getTargetTemperature());
+        slot.putInt(32, record.getBrightness());
+        slot.putInt(36, record.getFanSpeed());
+        seal(slot);
+        return compacted + end;
+    }
+
+    // Records many device states at the given time and waits until they are on disk
+    public void appendAll(long timestamp, List<DeviceRecord> records) {
+        long position = 0;
+        for (DeviceRecord record : records) {
+            position = append(timestamp, record);
+        }
+        awaitDurable(position);
+    }
+
+    // Blocks until every record up to the given journal position has been forced to disk
+    public synchronized void awaitDurable(long position) {
+        while (compacted + durable < position && !closed) {
+            notifyAll(); // wake the committer early instead of waiting out its interval
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Blocks until everything appended so far is on disk
+    public void sync() {
+        long position;
+        synchronized (this) {
+            position = compacted + end;
+        }
+        awaitDurable(position);
+    }
+
+    // Number of distinct devices in the journal
+    public synchronized int getDeviceCount() {
+        return names.size();
+    }
+
+    // Number of records (state and name) in the journal
+    public synchronized long getRecordCount() {
+        return (end - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    // Every device as it was at the given time (epoch millis): the last state recorded at or before it.
+    // Devices without a state by then are left out; the list is in order of first appearance.
+    public synchronized List<DeviceRecord> stateAt(long timestamp) {
+        checkOpen();
+        long[] last = new long[names.size()];
+        Arrays.fill(last, -1);
+        for (long offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+            ByteBuffer record = slice(offset);
+            if (record.get(12) == KIND_STATE && record.getLong(0) <= timestamp) {
+                last[record.getInt(8)] = offset;
+            }
+        }
+        List<DeviceRecord> devices = new ArrayList<>();
+        for (int id = 0; id < last.length; id++) {
+            if (last[id] >= 0) {
+                devices.add(toRecord(names.get(id), slice(last[id])));
+            }
+        }
+        return devices;
+    }
+
+    // Latest state of every device
+    public List<DeviceRecord> latest() {
+        return stateAt(Long.MAX_VALUE);
+    }
+
+    // Folds all history before the given time into one state record per device (its last state by then)
+    // and rewrites the journal atomically. stateAt() stays exact for any time at or after the cutoff.
+    // Returns false if the file could not be replaced (Windows refuses while old segments are still
+    // mapped; they are only unmapped once garbage collected): the journal is then left as it was.
+    public synchronized boolean compact(long beforeTimestamp) throws IOException {
+        checkOpen();
+        force(segments, durable, end);
+        durable = end;
+        long[] last = new long[names.size()];
+        Arrays.fill(last, -1);
+        for (long offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+            ByteBuffer record = slice(offset);
+            if (record.get(12) == KIND_STATE && record.getLong(0) < beforeTimestamp) {
+                last[record.getInt(8)] = offset;
+            }
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(header());
+            // Name records of every device, then the folded states, then all later records in order
+            for (long offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+                ByteBuffer record = slice(offset);
+                if (record.get(12) == KIND_NAME) {
+                    buffer = write(out, buffer, record);
+                }
+            }
+            for (long offset : last) {
+                if (offset >= 0) {
+                    buffer = write(out, buffer, slice(offset));
+                }
+            }
+            for (long offset = HEADER_SIZE; offset < end; offset += RECORD_SIZE) {
+                ByteBuffer record = slice(offset);
+                if (record.get(12) == KIND_STATE && record.getLong(0) >= beforeTimestamp) {
+                    buffer = write(out, buffer, record);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        segments.clear();
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Device journal not compacted, could not replace " + path + ": " + e.getMessage());
+            Files.deleteIfExists(temp);
+            openFile();
+            return false;
+        }
+        generation++;
+        long before = end;
+        openFile();
+        compacted += before - end;
+        notifyAll(); // everything appended before the rewrite is on disk now
+        return true;
+    }
+
+    // Forces the remaining records to disk and stops the committer
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            force(segments, durable, end);
+            durable = end;
+            segments.clear();
+            try {
+                channel.truncate(end); // give back the unused part of the last mapped segment
+            } catch (IOException e) {
+                // Windows cannot truncate a mapped file; recover() drops the unused tail on the next open
+            }
+            channel.close();
+        }
+    }
+
+    // Opens the file, drops any torn or partial records at its end, and rebuilds the name table
+    private void openFile() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ids.clear();
+        names.clear();
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            ByteBuffer header = header();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            end = HEADER_SIZE;
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a device journal: " + path);
+            }
+            int version = header.getInt(4);
+            if (version != VERSION || header.getInt(8) != RECORD_SIZE) {
+                throw new IOException("Unsupported device journal version: " + version);
+            }
+            end = recover();
+        }
+        durable = end;
+    }
+
+    // Scans the records with plain reads; the first invalid one marks the end of the journal
+    private long recover() throws IOException {
+        long size = channel.size();
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 16384).order(ByteOrder.LITTLE_ENDIAN);
+        Map<Integer, byte[]> pendingNames = new HashMap<>();
+        long offset = HEADER_SIZE;
+        scan:
+        while (offset + RECORD_SIZE <= size) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), (size - offset) / RECORD_SIZE * RECORD_SIZE));
+            readFully(chunk, offset);
+            for (int at = 0; at < chunk.limit(); at += RECORD_SIZE) {
+                ByteBuffer record = chunk.slice(at, RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                if (!valid(record) || !register(record, pendingNames)) {
+                    break scan;
+                }
+                offset += RECORD_SIZE;
+            }
+        }
+        if (offset < size) {
+            channel.truncate(offset); // discard the torn tail and any unused, preallocated space
+        }
+        for (int id = 0; id < names.size(); id++) {
+            String name = new String(pendingNames.get(id), StandardCharsets.UTF_8);
+            names.set(id, name);
+            ids.put(name, id);
+        }
+        return offset;
+    }
+
+    // Collects name chunks per device id; false if the record does not fit the journal.
+    // A new id must be the next one in sequence, and a chunk may only extend the newest name.
+    private boolean register(ByteBuffer record, Map<Integer, byte[]> pendingNames) {
+        int id = record.getInt(8);
+        if (record.get(12) == KIND_NAME) {
+            int length = record.get(15);
+            if (length < 0 || length > NAME_CHUNK) {
+                return false;
+            }
+            if (id == names.size()) {
+                names.add(null); // decoded once the scan is complete
+                pendingNames.put(id, new byte[0]);
+            } else if (id != names.size() - 1) {
+                return false;
+            }
+            byte[] previous = pendingNames.get(id);
+            byte[] joined = Arrays.copyOf(previous, previous.length + length);
+            record.get(16, joined, previous.length, length);
+            pendingNames.put(id, joined);
+            return true;
+        }
+        return record.get(12) == KIND_STATE && id >= 0 && id < names.size();
+    }
+
+    private void writeName(long timestamp, int id, byte type, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int at = 0;
+        do {
+            int length = Math.min(NAME_CHUNK, bytes.length - at);
+            ByteBuffer slot = reserve();
+            slot.putLong(0, timestamp);
+            slot.putInt(8, id);
+            slot.put(12, KIND_NAME);
+            slot.put(13, type);
+            slot.put(15, (byte) length);
+            slot.put(16, bytes, at, length);
+            seal(slot);
+            at += length;
+        } while (at < bytes.length);
+    }
+
+    // Claims the next record slot, mapping a new segment when the current one is full
+    private ByteBuffer reserve() {
+        long offset = end;
+        ByteBuffer slot = slice(offset);
+        end = offset + RECORD_SIZE;
+        return slot;
+    }
+
+    private void seal(ByteBuffer slot) {
+        crc.reset();
+        crc.update(slot.duplicate().position(0).limit(CHECKED_BYTES));
+        slot.putInt(CHECKED_BYTES, (int) crc.getValue());
+    }
+
+    private static boolean valid(ByteBuffer record) {
+        CRC32C check = new CRC32C();
+        check.update(record.duplicate().position(0).limit(CHECKED_BYTES));
+        return record.get(12) != 0 && record.getInt(CHECKED_BYTES) == (int) check.getValue();
+    }
+
+    // The record at a file offset, as a little-endian view into its mapped segment
+    private ByteBuffer slice(long offset) {
+        int segment = (int) (offset / SEGMENT_SIZE);
+        while (segments.size() <= segment) {
+            try {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * SEGMENT_SIZE, SEGMENT_SIZE);
+                segments.add(mapped);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map device journal segment " + segments.size(), e);
+            }
+        }
+        return segments.get(segment).slice((int) (offset % SEGMENT_SIZE), RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Committer thread: every interval (or when a caller is waiting) force everything appended so far.
+    // The force runs outside the lock, so appends continue while the disk catches up. If compact()
+    // rewrote the file in the meantime the forced range belongs to the old file and is not counted.
+    private void commitLoop() {
+        while (true) {
+            long from;
+            long to;
+            long forcedGeneration;
+            List<MappedByteBuffer> mapped;
+            synchronized (this) {
+                while (!closed && durable == end) {
+                    try {
+                        wait(commitIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                from = durable;
+                to = end;
+                forcedGeneration = generation;
+                mapped = new ArrayList<>(segments);
+            }
+            force(mapped, from, to);
+            synchronized (this) {
+                if (forcedGeneration == generation && to > durable && !closed) {
+                    durable = to;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    // Forces the mapped range [from, to) to disk
+    private static void force(List<MappedByteBuffer> mapped, long from, long to) {
+        while (from < to) {
+            int segment = (int) (from / SEGMENT_SIZE);
+            long segmentEnd = Math.min(to, (segment + 1) * SEGMENT_SIZE);
+            mapped.get(segment).force((int) (from % SEGMENT_SIZE), (int) (segmentEnd - from));
+            from = segmentEnd;
+        }
+    }
+
+    private ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).putLong(System.currentTimeMillis());
+        header.position(0);
+        return header;
+    }
+
+    private static ByteBuffer write(FileChannel out, ByteBuffer buffer, ByteBuffer record) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return buffer.put(record.duplicate().position(0).limit(RECORD_SIZE));
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of device journal");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("DeviceJournal is closed");
+        }
+    }
+
+    private static DeviceRecord toRecord(String name, ByteBuffer record) {
+        return new DeviceRecord(name, typeName(record.get(13)), (record.get(14) & FLAG_ON) != 0,
+                record.getDouble(16), record.getInt(32), record.getDouble(24), record.getInt(36));
+    }
+
+    private static byte typeCode(String type) {
+        return switch (type) {
+            case "SmartLight" -> DeviceFleet.TYPE_LIGHT;
+            case "SmartHVAC" -> DeviceFleet.TYPE_HVAC;
+            case "SmartRefrigerator" -> DeviceFleet.TYPE_REFRIGERATOR;
+            default -> DeviceFleet.TYPE_GENERIC;
+        };
+    }
+
+    private static String typeName(byte type) {
+        return switch (type) {
+            case DeviceFleet.TYPE_LIGHT -> "SmartLight";
+            case DeviceFleet.TYPE_HVAC -> "SmartHVAC";
+            case DeviceFleet.TYPE_REFRIGERATOR -> "SmartRefrigerator";
+            default -> "Unknown";
+        };
+    }
+}
@@ -0,0 +1,103 @@
+// Immutable snapshot of one device's persisted state, safe to hand to another thread
+public final class DeviceRecord {
+    private final String name;
+    private final String type; // "SmartLight", "SmartHVAC", "SmartRefrigerator" or "Unknown"
+    private final boolean status;
+    private final double powerConsumption; // in Watts
+    private final int brightness; // SmartLight only
+    private final double targetTemperature; // SmartHVAC only
+    private final int fanSpeed; // SmartHVAC only
+
+    public DeviceRecord(String name, String type, boolean status, double powerConsumption,
+                        int brightness, double targetTemperature, int fanSpeed) {
+        this.name = name;
+        this.type = type;
+        this.status = status;
+        this.powerConsumption = powerConsumption;
+        this.brightness = brightness;
+        this.targetTemperature = targetTemperature;
+        this.fanSpeed = fanSpeed;
+    }
+
+    // Captures the current state of a device
+    public static DeviceRecord of(EnergyConsumer device) {
+        int brightness = 0;
+        double targetTemperature = 0.0;
+        int fanSpeed = 0;
+        if (device instanceof SmartLight light) {
+            brightness = light.getBrightness();
+        } else if (device instanceof SmartHVAC hvac) {
+            targetTemperature = hvac.getTargetTemperature();
+            fanSpeed = hvac.getFanSpeed();
+        }
+        return new DeviceRecord(device.getName(), typeOf(device), device.isStatus(), device.getPowerConsumption(),
+                brightness, targetTemperature, fanSpeed);
+    }
+
+    // Builds a device with this state, without going through the printing setters (null for unknown types)
+    public EnergyConsumer toDevice() {
+        switch (type) {
+            case "SmartLight" -> {
+                SmartLight light = new SmartLight(name, powerConsumption, false);
+                light.applyState(powerConsumption, status);
+                light.applyBrightness(brightness);
+                return light;
+            }
+            case "SmartHVAC" -> {
+                SmartHVAC hvac = new SmartHVAC(name, powerConsumption);
+                hvac.applyState(powerConsumption, status);
+                hvac.applySettings(targetTemperature, fanSpeed);
+                return hvac;
+            }
+            case "SmartRefrigerator" -> {
+                SmartRefrigerator fridge = new SmartRefrigerator(name, powerConsumption);
+                fridge.applyState(powerConsumption, status);
+                return fridge;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    // Type name stored for a device
+    public static String typeOf(EnergyConsumer device) {
+        if (device instanceof SmartLight) return "SmartLight";
+        if (device instanceof SmartHVAC) return "SmartHVAC";
+        if (device instanceof SmartRefrigerator) return "SmartRefrigerator";
+        return "Unknown";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public boolean isStatus() {
+        return status;
+    }
+
+    public double getPowerConsumption() {
+        return powerConsumption;
+    }
+
+    public int getBrightness() {
+        return brightness;
+    }
+
+    public double getTargetTemperature() {
+        return targetTemperature;
+    }
+
+    public int getFanSpeed() {
+        return fanSpeed;
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + type + ", " + (status ? "ON" : "OFF") + ", " + powerConsumption + "W]";
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Persistence backend for device state. Main, LoginScreen and SmartHomeGUI only talk to this interface,
+// so the SQLite database can be swapped for the in-memory, flat-file or journal store (see DeviceStoreBenchmark).
+public interface DeviceStore extends AutoCloseable {
+    // Saves the current state of one device, replacing any earlier state with the same name
+    void save(EnergyConsumer device);
+
+    // Saves many device snapshots in one operation
+    void saveAll(List<DeviceRecord> records);
+
+    // Streams every stored device snapshot; close the stream if it is not fully consumed
+    Stream<DeviceRecord> stream();
+
+    // Rebuilds every stored device without going through the printing setters
+    default List<EnergyConsumer> load() {
+        List<EnergyConsumer> devices = new ArrayList<>();
+        try (Stream<DeviceRecord> records = stream()) {
+            records.forEach(record -> {
+                EnergyConsumer device = record.toDevice();
+                if (device == null) {
+                    System.out.println("Unknown device type: " + record.getType());
+                } else {
+                    devices.add(device);
+                }
+            });
+        }
+        return devices;
+    }
+
+    // Releases the backend's resources after writing anything still pending
+    @Override
+    void close();
+}
@@ -0,0 +1,267 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Conformance and throughput harness for DeviceStore backends.
+// Every backend runs the same checks (empty store, save, overwrite, saveAll, load, reopen) and then the
+// same workload: single saves, bulk saves in batches and a full stream, reported in operations per second.
+// A backend that throws or does not finish within the time limit counts as a failed check; the rest still run.
+// A backend that times out is interrupted and given a few seconds to stop; if it does not, it is abandoned
+// (its later checks are ignored) and its scratch files are removed.
+// Usage: java DeviceStoreBenchmark [devices] [seconds per backend]   (SQLite is skipped when its JDBC driver is not on the classpath;
+// a driver that is present but fails to load, e.g. without slf4j-api, is reported as a failed check)
+public class DeviceStoreBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    private static final int SINGLE_SAVES = 2000;
+    private static final long CANCEL_GRACE_SECONDS = 5; // time a timed-out backend gets to stop after being interrupted
+
+    private final AtomicInteger failures = new AtomicInteger(); // checks run on the backend threads
+    private final Set<Thread> abandoned = ConcurrentHashMap.newKeySet(); // timed-out backend threads that did not stop
+    private final List<Backend> abandonedBackends = new ArrayList<>(); // their backends, cleaned up again before exit
+
+    // One backend under test: how to open it on a scratch location and how to remove that location again
+    private static final class Backend {
+        final String name;
+        final boolean persistent;
+        final Supplier<DeviceStore> opener;
+        final Runnable cleanup;
+
+        Backend(String name, boolean persistent, Supplier<DeviceStore> opener, Runnable cleanup) {
+            this.name = name;
+            this.persistent = persistent;
+            this.opener = opener;
+            this.cleanup = cleanup;
+        }
+    }
+
+    public static void main(String[] args) {
+        int devices = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long timeoutSeconds = args.length > 1 ? Long.parseLong(args[1]) : 300;
+        // Keep the device classes quiet; the harness only measures the store
+        DeviceEventLog.getDefault().setLevel(DeviceEventLog.Level.WARN);
+
+        List<Backend> backends = new ArrayList<>();
+        backends.add(new Backend("in-memory", false, InMemoryDeviceStore::new, () -> { }));
+        Path file = Paths.get("devicestore-bench.txt");
+        backends.add(new Backend("flat-file", true, () -> new FileDeviceStore(file),
+                () -> delete(file, Paths.get(file + ".tmp"))));
+        Path journal = Paths.get("devicestore-bench.journal");
+        backends.add(new Backend("journal", true, () -> new JournalDeviceStore(journal),
+                () -> delete(journal, Paths.get(journal + ".compact"))));
+        DeviceStoreBenchmark harness = new DeviceStoreBenchmark();
+        Throwable sqliteError = sqliteDriverError();
+        if (sqliteError == null) {
+            String db = "devicestore-bench.db";
+            backends.add(new Backend("sqlite", true, () -> new DeviceDatabase("jdbc:sqlite:" + db),
+                    () -> delete(Paths.get(db), Paths.get(db + "-wal"), Paths.get(db + "-shm"))));
+        } else if (sqliteError instanceof ClassNotFoundException) {
+            System.out.println("SQLite JDBC driver not found; skipping the sqlite backend.");
+        } else {
+            sqliteError.printStackTrace();
+            harness.check("SQLite JDBC driver loads (" + sqliteError + ")", false);
+        }
+
+        for (Backend backend : backends) {
+            System.out.println("\n--- " + backend.name + " ---");
+            harness.runWithTimeout(backend, devices, timeoutSeconds);
+        }
+        // An abandoned backend may have written more scratch files since it was cleaned up
+        for (Backend backend : harness.abandonedBackends) {
+            backend.cleanup.run();
+        }
+        int failed = harness.failures.get();
+        System.out.println(failed == 0 ? "\nAll conformance checks passed." : "\n" + failed + " conformance checks FAILED.");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // Runs one backend on its own daemon thread, so a hung backend cannot stall the others
+    private void runWithTimeout(Backend backend, int devices, long timeoutSeconds) {
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        ExecutorService runner = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "benchmark-" + backend.name);
+            thread.setDaemon(true);
+            worker.set(thread);
+            return thread;
+        });
+        Future<?> run = runner.submit(() -> {
+            backend.cleanup.run();
+            try {
+                checkConformance(backend);
+                backend.cleanup.run();
+                measureThroughput(backend, devices);
+            } finally {
+                backend.cleanup.run();
+            }
+        });
+        try {
+            run.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            check(backend.name + " finishes within " + timeoutSeconds + " s", false);
+            stop(backend, runner, worker.get());
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            check(backend.name + " runs without errors", false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            check(backend.name + " runs without being interrupted", false);
+        } finally {
+            runner.shutdownNow();
+        }
+    }
+
+    // Interrupts a timed-out backend and waits briefly for it to stop. One that keeps running is abandoned:
+    // its further checks are ignored and its scratch files are removed here, since its own cleanup never ran.
+    private void stop(Backend backend, ExecutorService runner, Thread thread) {
+        runner.shutdownNow();
+        boolean stopped = false;
+        try {
+            stopped = runner.awaitTermination(CANCEL_GRACE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!stopped) {
+            if (thread != null) {
+                abandoned.add(thread);
+            }
+            abandonedBackends.add(backend);
+            System.out.println(backend.name + " did not stop within " + CANCEL_GRACE_SECONDS + " s of being interrupted; abandoning it.");
+            backend.cleanup.run();
+        }
+    }
+
+    // Same behaviour is expected from every backend
+    private void checkConformance(Backend backend) {
+        try (DeviceStore store = backend.opener.get()) {
+            check("new store is empty", count(store) == 0);
+
+            SmartLight light = new SmartLight("Conformance Light", 12, false);
+            light.applyState(12, true);
+            light.applyBrightness(40);
+            store.save(light);
+            check("save adds a device", count(store) == 1);
+
+            light.applyBrightness(75);
+            store.save(light);
+            List<DeviceRecord> stored = store.stream().collect(Collectors.toList());
+            check("save replaces a device with the same name", stored.size() == 1 && stored.get(0).getBrightness() == 75);
+
+            List<DeviceRecord> batch = new ArrayList<>();
+            batch.add(new DeviceRecord("Conformance HVAC", "SmartHVAC", true, 1250, 0, 21.5, 2));
+            batch.add(new DeviceRecord("Conformance Fridge", "SmartRefrigerator", false, 160, 0, 0.0, 0));
+            batch.add(new DeviceRecord("Conformance Light", "SmartLight", false, 12, 10, 0.0, 0));
+            store.saveAll(batch);
+            check("saveAll adds new and replaces existing devices", count(store) == 3);
+
+            List<EnergyConsumer> loaded = store.load();
+            check("load rebuilds every device", loaded.size() == 3);
+            check("load keeps real wattage and settings", loaded.stream().anyMatch(device ->
+                    device instanceof SmartHVAC hvac && hvac.getPowerConsumption() == 1250
+                            && hvac.getTargetTemperature() == 21.5 && hvac.getFanSpeed() == 2 && hvac.isStatus()));
+            check("load applies the latest saveAll state", loaded.stream().anyMatch(device ->
+                    device instanceof SmartLight l && l.getBrightness() == 10 && !l.isStatus()));
+        }
+
+        if (backend.persistent) {
+            try (DeviceStore reopened = backend.opener.get()) {
+                check("devices survive close and reopen", count(reopened) == 3);
+            }
+        }
+    }
+
+    // Identical workload for every backend
+    private void measureThroughput(Backend backend, int devices) {
+        try (DeviceStore store = backend.opener.get()) {
+            SmartHVAC hvac = new SmartHVAC("Benchmark HVAC", 1000);
+            long start = System.nanoTime();
+            for (int i = 0; i < SINGLE_SAVES; i++) {
+                hvac.applySettings(18 + i % 10, i % 4);
+                store.save(hvac);
+            }
+            report("single saves", SINGLE_SAVES, start);
+
+            start = System.nanoTime();
+            List<DeviceRecord> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < devices; i++) {
+                batch.add(record(i));
+                if (batch.size() == BATCH_SIZE || i == devices - 1) {
+                    store.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            report("bulk saves (batches of " + BATCH_SIZE + ")", devices, start);
+
+            start = System.nanoTime();
+            long streamed;
+            try (Stream<DeviceRecord> records = store.stream()) {
+                streamed = records.count();
+            }
+            report("streamed records", streamed, start);
+            check("stream returns every saved device", streamed == devices + 1);
+        }
+    }
+
+    private static DeviceRecord record(int i) {
+        return switch (i % 3) {
+            case 0 -> new DeviceRecord("Light " + i, "SmartLight", i % 2 == 0, 5 + i % 20, i % 101, 0.0, 0);
+            case 1 -> new DeviceRecord("HVAC " + i, "SmartHVAC", i % 2 == 0, 800 + i % 500, 0, 18 + i % 8, i % 4);
+            default -> new DeviceRecord("Fridge " + i, "SmartRefrigerator", true, 100 + i % 100, 0, 0.0, 0);
+        };
+    }
+
+    private static long count(DeviceStore store) {
+        try (Stream<DeviceRecord> records = store.stream()) {
+            return records.count();
+        }
+    }
+
+    private void check(String description, boolean passed) {
+        if (abandoned.contains(Thread.currentThread())) {
+            return;
+        }
+        System.out.println((passed ? "PASS  " : "FAIL  ") + description);
+        if (!passed) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static void report(String operation, long count, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.println(String.format("%-32s %,10d in %8.3f s  (%,.0f/s)", operation, count, seconds, count / seconds));
+    }
+
+    // Null when the SQLite JDBC driver loads; otherwise why it does not (ClassNotFoundException when it is absent)
+    private static Throwable sqliteDriverError() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return null;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return e;
+        }
+    }
+
+    private static void delete(Path... paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
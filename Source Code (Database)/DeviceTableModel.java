@@ -0,0 +1,120 @@
+import javax.swing.table.AbstractTableModel;
+
+// Table model that reads straight from the DeviceFleet columns, so a JTable only touches the rows it
+// paints and no per-device Swing components are created. A device object is only materialized when one
+// of its cells is edited; edits go through the normal device setters and are then queued for saving.
+public class DeviceTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NAME = 0;
+    public static final int TYPE = 1;
+    public static final int STATUS = 2;
+    public static final int POWER = 3;
+    public static final int BRIGHTNESS = 4;
+    public static final int TARGET_TEMPERATURE = 5;
+    public static final int FAN_SPEED = 6;
+    public static final int ROOM = 7;
+
+    private static final String[] COLUMN_NAMES = {
+            "Name", "Type", "On", "Power (W)", "Brightness (%)", "Target Temp (°C)", "Fan", "Room"
+    };
+    private static final Class<?>[] COLUMN_CLASSES = {
+            String.class, String.class, Boolean.class, Double.class, Integer.class, Double.class, Integer.class, String.class
+    };
+
+    private final DeviceFleet fleet;
+    private final DeviceWriteBehind writeBehind;
+
+    // Constructor for a model over the given fleet; edited devices are saved through writeBehind
+    public DeviceTableModel(DeviceFleet fleet, DeviceWriteBehind writeBehind) {
+        this.fleet = fleet;
+        this.writeBehind = writeBehind;
+    }
+
+    // Display name of a DeviceFleet type code
+    public static String typeName(byte type) {
+        return switch (type) {
+            case DeviceFleet.TYPE_LIGHT -> "Light";
+            case DeviceFleet.TYPE_HVAC -> "HVAC";
+            case DeviceFleet.TYPE_REFRIGERATOR -> "Refrigerator";
+            default -> "Other";
+        };
+    }
+
+    public DeviceFleet getFleet() {
+        return fleet;
+    }
+
+    @Override
+    public int getRowCount() {
+        return fleet.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    // Cells that do not apply to a device type (e.g. brightness of an HVAC) are null and render empty
+    @Override
+    public Object getValueAt(int row, int column) {
+        byte type = fleet.getType(row);
+        return switch (column) {
+            case NAME -> fleet.getName(row);
+            case TYPE -> typeName(type);
+            case STATUS -> fleet.isOn(row);
+            case POWER -> fleet.getPower(row);
+            case BRIGHTNESS -> type == DeviceFleet.TYPE_LIGHT ? fleet.getBrightness(row) : null;
+            case TARGET_TEMPERATURE -> type == DeviceFleet.TYPE_HVAC ? fleet.getTargetTemperature(row) : null;
+            case FAN_SPEED -> type == DeviceFleet.TYPE_HVAC ? fleet.getFanSpeed(row) : null;
+            case ROOM -> fleet.getRoom(row);
+            default -> null;
+        };
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        byte type = fleet.getType(row);
+        return switch (column) {
+            case STATUS -> true;
+            case BRIGHTNESS -> type == DeviceFleet.TYPE_LIGHT;
+            case TARGET_TEMPERATURE, FAN_SPEED -> type == DeviceFleet.TYPE_HVAC;
+            default -> false;
+        };
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (value == null || !isCellEditable(row, column)) {
+            return;
+        }
+        EnergyConsumer device = fleet.get(row);
+        switch (column) {
+            case STATUS -> {
+                if ((Boolean) value) {
+                    device.turnOn();
+                } else {
+                    device.turnOff();
+                }
+            }
+            case BRIGHTNESS -> ((SmartLight) device).dim((Integer) value);
+            case TARGET_TEMPERATURE -> ((SmartHVAC) device).setTargetTemperature((Double) value);
+            case FAN_SPEED -> ((SmartHVAC) device).setFanSpeed((Integer) value);
+            default -> {
+                return;
+            }
+        }
+        writeBehind.save(device); // SAVE TO DB
+        fireTableRowsUpdated(row, row); // power may change with the setting, so refresh the whole row
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Write-behind layer in front of a DeviceStore.
+// save() only snapshots the device and returns; a background thread writes the pending snapshots
+// in one transaction every flushIntervalMillis, or sooner once maxBatchSize devices are waiting.
+// Repeated saves of the same device before a flush are coalesced into a single row write.
+public class DeviceWriteBehind implements AutoCloseable {
+    private final DeviceStore store;
+    private final long flushIntervalMillis;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<String, DeviceRecord> pending = new ConcurrentHashMap<>();
+    private final Object signal = new Object();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Constructor with default settings: flush every 200 ms or 500 devices
+    public DeviceWriteBehind(DeviceStore store) {
+        this(store, 200, 500);
+    }
+
+    // Constructor with explicit flush interval and batch size
+    public DeviceWriteBehind(DeviceStore store, long flushIntervalMillis, int maxBatchSize) {
+        if (flushIntervalMillis <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("flushIntervalMillis and maxBatchSize must be positive");
+        }
+        this.store = store;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.writer = new Thread(this::writeLoop, "device-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Queues the device's current state for saving; never waits on the store
+    public void save(EnergyConsumer device) {
+        if (!running) {
+            throw new IllegalStateException("DeviceWriteBehind is closed");
+        }
+        pending.put(device.getName(), DeviceRecord.of(device));
+        if (pending.size() >= maxBatchSize) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    // Number of devices waiting to be written
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    // Writes everything still pending and stops the background thread
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushPending(); // anything saved while the writer was stopping
+        if (!pending.isEmpty()) {
+            System.out.println(pending.size() + " devices could not be written before closing.");
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            synchronized (signal) {
+                if (running && pending.size() < maxBatchSize) {
+                    try {
+                        signal.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            flushPending();
+        }
+    }
+
+    // Removes the pending snapshots and writes them in one transaction.
+    // If the write fails the snapshots go back into the queue (unless the device was saved again
+    // in the meantime) and are retried on the next flush.
+    private void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<DeviceRecord> batch = new ArrayList<>(pending.size());
+        for (String name : pending.keySet()) {
+            DeviceRecord record = pending.remove(name);
+            if (record != null) {
+                batch.add(record);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            store.saveAll(batch);
+        } catch (RuntimeException e) {
+            System.out.println("Write-behind flush of " + batch.size() + " devices failed; retrying on the next flush.");
+            e.printStackTrace();
+            for (DeviceRecord record : batch) {
+                pending.putIfAbsent(record.getName(), record);
+            }
+        }
+    }
+}
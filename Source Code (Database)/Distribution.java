@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+// Summary statistics of a sample: mean, variance and percentiles
+public final class Distribution {
+    private final double[] sorted;
+    private final double mean;
+    private final double variance; // sample variance (n - 1)
+
+    // Constructor computing the statistics of the given values (the array is copied)
+    public Distribution(double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Distribution needs at least one value");
+        }
+        this.sorted = values.clone();
+        Arrays.sort(sorted);
+
+        // Welford's algorithm over the values in their original order
+        double runningMean = 0.0;
+        double sumSquares = 0.0;
+        for (int i = 0; i < values.length; i++) {
+            double delta = values[i] - runningMean;
+            runningMean += delta / (i + 1);
+            sumSquares += delta * (values[i] - runningMean);
+        }
+        this.mean = runningMean;
+        this.variance = values.length > 1 ? sumSquares / (values.length - 1) : 0.0;
+    }
+
+    public int getCount() {
+        return sorted.length;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    public double getMin() {
+        return sorted[0];
+    }
+
+    public double getMax() {
+        return sorted[sorted.length - 1];
+    }
+
+    // Percentile p in [0, 100], linearly interpolated between the closest ranks
+    public double getPercentile(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+        }
+        double rank = p / 100.0 * (sorted.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, sorted.length - 1);
+        return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean=%.4f, sd=%.4f, p5=%.4f, p50=%.4f, p95=%.4f",
+                mean, getStandardDeviation(), getPercentile(5), getPercentile(50), getPercentile(95));
+    }
+}
@@ -2,6 +2,9 @@ abstract class EnergyConsumer {
     private String name; // Name of the energy consumer
     private double powerConsumption; // in Watts
     private boolean status; // true = on, false = off
+    private String room; // room the device is in (null = unassigned)
+    private DeviceFleet fleet; // columnar store this device is a view onto (null if not added)
+    private int slot = -1; // row of this device in the fleet
 
     public EnergyConsumer(String name, double powerConsumption) {
         this.name = name;
@@ -21,14 +24,25 @@ abstract class EnergyConsumer {
         return status;
     }
 
+    public String getRoom() {
+        return room;
+    }
+
+    public void setRoom(String room) {
+        this.room = room;
+        publishState();
+    }
+
     public void turnOn() {
         this.status = true;
-        System.out.println(name + " is turned ON.");
+        publishState();
+        DeviceEventLog.getDefault().info(name, "is turned ON.");
     }
 
     public void turnOff() {
         this.status = false;
-        System.out.println(name + " is turned OFF.");
+        publishState();
+        DeviceEventLog.getDefault().info(name, "is turned OFF.");
     }
 
     public double getEnergyConsumption(double duration) {
@@ -41,6 +55,32 @@ abstract class EnergyConsumer {
 
     public void setPowerConsumption(double powerConsumption) {
         this.powerConsumption = powerConsumption;
+        publishState();
+    }
+
+    // Binds this device to its row in a DeviceFleet (fleet == null unbinds it)
+    void bind(DeviceFleet fleet, int slot) {
+        this.fleet = fleet;
+        this.slot = slot;
+    }
+
+    // Restores power and status without printing, used when rebuilding devices from stored state
+    void applyState(double powerConsumption, boolean status) {
+        this.powerConsumption = powerConsumption;
+        this.status = status;
+        publishState();
+    }
+
+    // Restores the room without publishing, used by DeviceFleet when materializing a row
+    void applyRoom(String room) {
+        this.room = room;
+    }
+
+    // Pushes the current state into the fleet columns so simulate() sees it
+    protected void publishState() {
+        if (fleet != null) {
+            fleet.sync(slot, this);
+        }
     }
 
     /**
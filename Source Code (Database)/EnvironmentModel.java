@@ -0,0 +1,5 @@
+// Interface for models that update weather-dependent inputs (sunlight, wind, ...) as simulated time advances
+public interface EnvironmentModel {
+    // Called before each simulation step with the step's start time (in hours since the start of day 0)
+    void apply(double timeHours);
+}
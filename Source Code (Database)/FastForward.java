@@ -0,0 +1,145 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Closed-form evaluation of long what-if horizons.
+// While a device holds its state its energy is just power * time, so each piecewise-constant
+// Schedule is integrated interval by interval (and periodic schedules period by period) instead
+// of step by step. Only DynamicModels, whose power depends on evolving state such as room
+// temperature, are stepped.
+public class FastForward {
+
+    // Piecewise-constant power schedule of one device. Intervals may overlap; their power adds up.
+    // A periodic schedule repeats its intervals (given within [0, period)) every period hours.
+    public static final class Schedule {
+        private double[] start = new double[4];
+        private double[] end = new double[4];
+        private double[] watts = new double[4];
+        private int count;
+        private double period; // 0 = not periodic
+
+        // Adds an interval [startHour, endHour) drawing the given power (in Watts)
+        public Schedule add(double startHour, double endHour, double powerWatts) {
+            if (endHour < startHour) {
+                throw new IllegalArgumentException("Interval ends before it starts: " + startHour + " > " + endHour);
+            }
+            if (count == start.length) {
+                start = Arrays.copyOf(start, count * 2);
+                end = Arrays.copyOf(end, count * 2);
+                watts = Arrays.copyOf(watts, count * 2);
+            }
+            start[count] = startHour;
+            end[count] = endHour;
+            watts[count] = powerWatts;
+            count++;
+            return this;
+        }
+
+        // Makes the schedule repeat every periodHours (e.g. 24 for a daily routine)
+        public Schedule repeatEvery(double periodHours) {
+            if (!(periodHours > 0)) {
+                throw new IllegalArgumentException("Period must be positive: " + periodHours);
+            }
+            this.period = periodHours;
+            return this;
+        }
+
+        // Schedule holding a device's current state forever
+        public static Schedule constant(EnergyConsumer device) {
+            Schedule schedule = new Schedule();
+            if (device.isStatus()) {
+                schedule.add(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, device.getPowerConsumption());
+            }
+            return schedule;
+        }
+
+        // Energy used within [from, to), in kWh
+        public double energy(double from, double to) {
+            if (to <= from) {
+                return 0.0;
+            }
+            if (period == 0) {
+                return overlapWattHours(from, to, 0.0) / 1000.0;
+            }
+            // Whole periods in closed form, then the partial periods at either end
+            double firstPeriod = Math.floor(from / period) * period;
+            double lastPeriod = Math.floor(to / period) * period;
+            if (firstPeriod == lastPeriod) {
+                return overlapWattHours(from, to, firstPeriod) / 1000.0;
+            }
+            double fullPeriods = (lastPeriod - firstPeriod) / period - 1;
+            double wattHours = overlapWattHours(from, firstPeriod + period, firstPeriod)
+                    + fullPeriods * overlapWattHours(0, period, 0.0)
+                    + overlapWattHours(lastPeriod, to, lastPeriod);
+            return wattHours / 1000.0;
+        }
+
+        // Watt-hours of all intervals (shifted by offset) overlapping [from, to)
+        private double overlapWattHours(double from, double to, double offset) {
+            double total = 0.0;
+            for (int i = 0; i < count; i++) {
+                double overlap = Math.min(end[i] + offset, to) - Math.max(start[i] + offset, from);
+                if (overlap > 0) {
+                    total += watts[i] * overlap;
+                }
+            }
+            return total;
+        }
+    }
+
+    // A load whose power depends on evolving state and must be stepped
+    public interface DynamicModel {
+        // Advances the model by durationHours starting at timeHours and returns the energy used, in kWh
+        double step(double timeHours, double durationHours);
+    }
+
+    private final double electricityPricePerKWh;
+    private final List<Schedule> schedules = new ArrayList<>();
+    private final List<DynamicModel> dynamicModels = new ArrayList<>();
+    private final List<Double> dynamicSteps = new ArrayList<>();
+
+    // Constructor for the FastForward with a flat electricity price
+    public FastForward(double electricityPricePerKWh) {
+        this.electricityPricePerKWh = electricityPricePerKWh;
+    }
+
+    // Adds a piecewise-constant device schedule
+    public void addSchedule(Schedule schedule) {
+        schedules.add(schedule);
+    }
+
+    // Adds a dynamic model that is stepped every stepHours
+    public void addDynamicModel(DynamicModel model, double stepHours) {
+        if (!(stepHours > 0)) {
+            throw new IllegalArgumentException("stepHours must be positive: " + stepHours);
+        }
+        dynamicModels.add(model);
+        dynamicSteps.add(stepHours);
+    }
+
+    // Evaluates [startHour, endHour). Device energy is ordered schedules first, then dynamic models.
+    public SimulationResult run(double startHour, double endHour) {
+        if (endHour < startHour) {
+            throw new IllegalArgumentException("Invalid horizon: start=" + startHour + ", end=" + endHour);
+        }
+        double[] deviceEnergy = new double[schedules.size() + dynamicModels.size()];
+        double total = 0.0;
+        int index = 0;
+        for (Schedule schedule : schedules) {
+            double energy = schedule.energy(startHour, endHour);
+            deviceEnergy[index++] = energy;
+            total += energy;
+        }
+        for (int m = 0; m < dynamicModels.size(); m++) {
+            DynamicModel model = dynamicModels.get(m);
+            double stepHours = dynamicSteps.get(m);
+            double energy = 0.0;
+            for (double time = startHour; time < endHour; time += stepHours) {
+                energy += model.step(time, Math.min(stepHours, endHour - time));
+            }
+            deviceEnergy[index++] = energy;
+            total += energy;
+        }
+        return new SimulationResult(endHour - startHour, total, 0.0, total, total * electricityPricePerKWh, deviceEnergy);
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// DeviceStore backed by a plain text file with one tab-separated line per device:
+//   name, type, status (1/0), power (W), brightness, target temperature, fan speed
+// The whole file is read once when the store opens; every save rewrites it through a temporary file
+// and an atomic rename, so readers never see a half-written file. Use saveAll for bulk updates.
+public class FileDeviceStore implements DeviceStore {
+    private final Path path;
+    private final Map<String, DeviceRecord> records = new LinkedHashMap<>();
+
+    // Opens the store, reading the file if it exists.
+    // A file that cannot be read completely is rejected: the next save rewrites the whole file, so
+    // continuing with the devices read so far would delete every device after the bad line.
+    public FileDeviceStore(Path path) {
+        this.path = path;
+        if (Files.exists(path)) {
+            try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = br.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isEmpty()) continue;
+                    DeviceRecord record;
+                    try {
+                        record = parse(line);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalStateException("Device file " + path + " is corrupt at line " + lineNumber, e);
+                    }
+                    records.put(record.getName(), record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read device file " + path, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void save(EnergyConsumer device) {
+        records.put(device.getName(), DeviceRecord.of(device));
+        writeFile();
+    }
+
+    @Override
+    public synchronized void saveAll(List<DeviceRecord> batch) {
+        for (DeviceRecord record : batch) {
+            records.put(record.getName(), record);
+        }
+        writeFile();
+    }
+
+    @Override
+    public synchronized Stream<DeviceRecord> stream() {
+        return new ArrayList<>(records.values()).stream();
+    }
+
+    @Override
+    public synchronized void close() {
+        // every save is already on disk
+    }
+
+    private void writeFile() {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter bw = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder();
+                for (DeviceRecord record : records.values()) {
+                    line.setLength(0);
+                    escape(line, record.getName());
+                    line.append('\t').append(record.getType())
+                            .append('\t').append(record.isStatus() ? 1 : 0)
+                            .append('\t').append(record.getPowerConsumption())
+                            .append('\t').append(record.getBrightness())
+                            .append('\t').append(record.getTargetTemperature())
+                            .append('\t').append(record.getFanSpeed())
+                            .append('\n');
+                    bw.append(line);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write device file " + path, e);
+        }
+    }
+
+    private static DeviceRecord parse(String line) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length != 7) {
+            throw new IllegalArgumentException("Malformed device line: " + line);
+        }
+        return new DeviceRecord(unescape(parts[0]), parts[1], parts[2].equals("1"), Double.parseDouble(parts[3]),
+                Integer.parseInt(parts[4]), Double.parseDouble(parts[5]), Integer.parseInt(parts[6]));
+    }
+
+    // Device names may contain tabs, newlines or backslashes; they are written as \t, \n and \\
+    private static void escape(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\\' -> sb.append("\\\\");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                sb.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Simulates a neighbourhood of many homes on a work-stealing pool.
+// Homes are split into shards; each shard steps its own homes into shard-private arrays (no shared
+// locks), and the per-step feeder totals are merged pairwise up the fork/join tree. The split points
+// only depend on the number of homes, so totals are identical for any number of threads.
+// Each home must own its devices, sources and environment model; nothing may be shared between homes.
+public class FleetSimulator {
+    private static final int SHARD_SIZE = 64; // homes per leaf task
+
+    private final List<SmartHomeSimulator> homes = new ArrayList<>();
+    private final ForkJoinPool pool;
+
+    // Constructor using the common fork/join pool (all cores)
+    public FleetSimulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // Constructor using a specific pool, e.g. new ForkJoinPool(8)
+    public FleetSimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Method to add a home to the fleet
+    public void addHome(SmartHomeSimulator home) {
+        homes.add(home);
+    }
+
+    // Getter for the list of homes
+    public List<SmartHomeSimulator> getHomes() {
+        return homes;
+    }
+
+    // Runs every home over [startHour, endHour) and returns feeder-level per-step totals.
+    // Net consumption and cost are summed per home, so one home's surplus does not offset another's load.
+    public TimeSeriesResult simulate(double startHour, double endHour, double stepHours) {
+        if (homes.isEmpty()) {
+            throw new IllegalStateException("Fleet has no homes");
+        }
+        double[][] totals = pool.invoke(new ShardTask(startHour, endHour, stepHours, 0, homes.size()));
+        return new TimeSeriesResult(startHour, stepHours, totals[0], totals[1], totals[2], totals[3], totals[4]);
+    }
+
+    // Simulates homes [from, to) and returns {consumption, generation, net, grid flow, cost} per step
+    private final class ShardTask extends RecursiveTask<double[][]> {
+        private static final long serialVersionUID = 1L;
+        private final double startHour;
+        private final double endHour;
+        private final double stepHours;
+        private final int from;
+        private final int to;
+
+        ShardTask(double startHour, double endHour, double stepHours, int from, int to) {
+            this.startHour = startHour;
+            this.endHour = endHour;
+            this.stepHours = stepHours;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[][] compute() {
+            if (to - from <= SHARD_SIZE) {
+                double[][] totals = null;
+                for (int i = from; i < to; i++) {
+                    TimeSeriesResult home = homes.get(i).simulate(startHour, endHour, stepHours);
+                    if (totals == null) {
+                        totals = new double[5][home.getStepCount()];
+                    }
+                    for (int step = 0; step < home.getStepCount(); step++) {
+                        totals[0][step] += home.getConsumption(step);
+                        totals[1][step] += home.getGeneration(step);
+                        totals[2][step] += home.getNetConsumption(step);
+                        totals[3][step] += home.getGridFlow(step);
+                        totals[4][step] += home.getCost(step);
+                    }
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            ShardTask left = new ShardTask(startHour, endHour, stepHours, from, mid);
+            ShardTask right = new ShardTask(startHour, endHour, stepHours, mid, to);
+            left.fork();
+            double[][] rightTotals = right.compute();
+            double[][] leftTotals = left.join();
+            for (int series = 0; series < leftTotals.length; series++) {
+                double[] into = leftTotals[series];
+                double[] add = rightTotals[series];
+                for (int step = 0; step < into.length; step++) {
+                    into[step] += add[step];
+                }
+            }
+            return leftTotals;
+        }
+    }
+
+    // Runs a neighbourhood of default homes for one day: java FleetSimulator [homes] [stepMinutes]
+    public static void main(String[] args) {
+        int homeCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double stepHours = (args.length > 1 ? Double.parseDouble(args[1]) : 15) / 60.0;
+
+        DeviceEventLog.getDefault().setLevel(DeviceEventLog.Level.WARN);
+        FleetSimulator fleet = new FleetSimulator();
+        for (int i = 0; i < homeCount; i++) {
+            SmartHomeSimulator home = new SmartHomeSimulator(0.30);
+            for (EnergyConsumer device : home.getDevices()) {
+                device.turnOn();
+            }
+            home.setEnvironmentModel(DailyWeatherModel.forSimulator(home, i));
+            fleet.addHome(home);
+        }
+
+        long start = System.nanoTime();
+        TimeSeriesResult feeder = fleet.simulate(0, 24, stepHours);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("--- Feeder Results (" + homeCount + " homes, " + feeder.getStepCount() + " steps, " + elapsed + " ms) ---");
+        System.out.println("Total Energy Consumption: " + String.format("%.3f", feeder.getTotalConsumption()) + " kWh");
+        System.out.println("Total Renewable Energy Generated: " + String.format("%.3f", feeder.getTotalGeneration()) + " kWh");
+        System.out.println("Net Energy Consumption: " + String.format("%.3f", feeder.getTotalNetConsumption()) + " kWh");
+        System.out.println("Total Cost: $" + String.format("%.2f", feeder.getTotalCost()));
+    }
+}
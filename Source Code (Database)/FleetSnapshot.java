@@ -0,0 +1,285 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Versioned binary snapshot of a whole simulator: every device with its real wattage and per-type
+// parameters, the renewable sources and the electricity price. Device columns are stored one after
+// another, so loading is one bulk read followed by a single sequential pass straight into a DeviceFleet.
+// Snapshots are written to a temporary file, forced to disk and renamed over the old one, so a crash
+// never leaves a half-written snapshot behind. The file is read and written through heap buffers rather
+// than mapped, since a mapping keeps the file locked on Windows until it is garbage collected.
+//
+// File layout (little endian):
+//   0  int    magic "FSNP"         24 long   created (epoch millis)
+//   4  int    format version       32 long   strings offset
+//   8  int    device count         40 int    CRC-32 of everything after the header
+//   12 int    source count         44 int    reserved
+//   16 double price per kWh
+//   48 device columns: type byte[n], flags byte[n] (bit 0 on, bit 1 occupancy sensor), power double[n],
+//      brightness int[n], target temperature double[n], fan speed int[n], room index int[n] (-1 = none)
+//   sources: (kind byte, two double parameters) per source
+//   strings offset: room count int, room names, then device names, each as (int length, UTF-8 bytes)
+public final class FleetSnapshot {
+    static final int MAGIC = 0x504E5346; // "FSNP" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+
+    private static final byte FLAG_ON = 1;
+    private static final byte FLAG_OCCUPANCY_SENSOR = 2;
+    private static final byte SOURCE_SOLAR = 1; // parameters: surface area, efficiency
+    private static final byte SOURCE_WIND = 2; // parameters: blade diameter, efficiency
+    private static final int SOURCE_SIZE = 1 + 2 * Double.BYTES;
+    private static final int DEVICE_COLUMNS_SIZE = 1 + 1 + Double.BYTES + Integer.BYTES + Double.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private FleetSnapshot() {
+    }
+
+    // Writes the simulator's devices, renewable sources and price to the given file, replacing it atomically.
+    // Sources other than solar panels and wind turbines are not stored.
+    public static void write(SmartHomeSimulator simulator, Path path) throws IOException {
+        DeviceFleet fleet = simulator.getFleet();
+        int n = fleet.size();
+
+        List<RenewableEnergySource> sources = new ArrayList<>();
+        for (RenewableEnergySource source : simulator.getRenewableSources()) {
+            if (source instanceof SolarPanel || source instanceof WindTurbine) {
+                sources.add(source);
+            }
+        }
+
+        // Encode the strings first so the file size is known before allocating the buffer
+        Map<String, Integer> roomIndex = new HashMap<>();
+        List<byte[]> roomNames = new ArrayList<>();
+        int[] rooms = new int[n];
+        byte[][] names = new byte[n][];
+        long stringBytes = Integer.BYTES;
+        for (int i = 0; i < n; i++) {
+            String room = fleet.getRoom(i);
+            if (room == null) {
+                rooms[i] = -1;
+            } else {
+                Integer index = roomIndex.get(room);
+                if (index == null) {
+                    index = roomNames.size();
+                    roomIndex.put(room, index);
+                    byte[] bytes = room.getBytes(StandardCharsets.UTF_8);
+                    roomNames.add(bytes);
+                    stringBytes += Integer.BYTES + bytes.length;
+                }
+                rooms[i] = index;
+            }
+            names[i] = fleet.getName(i).getBytes(StandardCharsets.UTF_8);
+            stringBytes += Integer.BYTES + names[i].length;
+        }
+
+        long stringsOffset = HEADER_SIZE + (long) DEVICE_COLUMNS_SIZE * n + (long) SOURCE_SIZE * sources.size();
+        long fileSize = stringsOffset + stringBytes;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Fleet too large for a single snapshot file: " + fileSize + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(HEADER_SIZE);
+
+        for (int i = 0; i < n; i++) {
+            buffer.put(fleet.getType(i));
+        }
+        for (int i = 0; i < n; i++) {
+            byte flags = fleet.isOn(i) ? FLAG_ON : 0;
+            if (fleet.getType(i) == DeviceFleet.TYPE_LIGHT && fleet.hasOccupancySensor(i)) {
+                flags |= FLAG_OCCUPANCY_SENSOR;
+            }
+            buffer.put(flags);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(fleet.getPower(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(fleet.getBrightness(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(fleet.getTargetTemperature(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(fleet.getFanSpeed(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(rooms[i]);
+        }
+
+        for (RenewableEnergySource source : sources) {
+            if (source instanceof SolarPanel panel) {
+                buffer.put(SOURCE_SOLAR).putDouble(panel.getSurfaceArea()).putDouble(panel.getEfficiency());
+            } else if (source instanceof WindTurbine turbine) {
+                buffer.put(SOURCE_WIND).putDouble(turbine.getBladeDiameter()).putDouble(turbine.getEfficiency());
+            }
+        }
+
+        buffer.putInt(roomNames.size());
+        for (byte[] room : roomNames) {
+            buffer.putInt(room.length).put(room);
+        }
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+
+        buffer.position(0);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(n);
+        buffer.putInt(sources.size());
+        buffer.putDouble(simulator.getElectricityPricePerKWh());
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putLong(stringsOffset);
+        buffer.putInt(checksum(buffer, (int) fileSize));
+        buffer.putInt(0); // reserved
+        buffer.position(0);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads a snapshot into a new simulator holding exactly the stored devices and sources
+    public static SmartHomeSimulator read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a fleet snapshot file");
+            }
+            buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of fleet snapshot file: " + path);
+                }
+            }
+            buffer.flip();
+        }
+        int fileSize = buffer.limit();
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a fleet snapshot file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported fleet snapshot version: " + version);
+        }
+        int n = buffer.getInt(8);
+        int sourceCount = buffer.getInt(12);
+        double price = buffer.getDouble(16);
+        long stringsOffset = buffer.getLong(32);
+        if (n < 0 || sourceCount < 0
+                || stringsOffset != HEADER_SIZE + (long) DEVICE_COLUMNS_SIZE * n + (long) SOURCE_SIZE * sourceCount
+                || stringsOffset + Integer.BYTES > fileSize) {
+            throw new IOException("Corrupt fleet snapshot header");
+        }
+        if (buffer.getInt(40) != checksum(buffer, fileSize)) {
+            throw new IOException("Fleet snapshot checksum mismatch");
+        }
+
+        // Column offsets
+        int typeAt = HEADER_SIZE;
+        int flagsAt = typeAt + n;
+        int powerAt = flagsAt + n;
+        int brightnessAt = powerAt + n * Double.BYTES;
+        int targetAt = brightnessAt + n * Integer.BYTES;
+        int fanAt = targetAt + n * Double.BYTES;
+        int roomAt = fanAt + n * Integer.BYTES;
+        int sourceAt = roomAt + n * Integer.BYTES;
+
+        // Strings: rooms, then device names in slot order
+        buffer.position((int) stringsOffset);
+        String[] roomNames = new String[buffer.getInt()];
+        for (int i = 0; i < roomNames.length; i++) {
+            roomNames[i] = readString(buffer);
+        }
+
+        SmartHomeSimulator simulator = new SmartHomeSimulator(price, List.of());
+        simulator.getRenewableSources().clear();
+        DeviceFleet fleet = simulator.getFleet();
+        fleet.ensureCapacity(n);
+
+        for (int i = 0; i < n; i++) {
+            String name = readString(buffer);
+            byte flags = buffer.get(flagsAt + i);
+            boolean on = (flags & FLAG_ON) != 0;
+            double power = buffer.getDouble(powerAt + i * Double.BYTES);
+            int slot;
+            switch (buffer.get(typeAt + i)) {
+                case DeviceFleet.TYPE_LIGHT -> {
+                    int brightness = buffer.getInt(brightnessAt + i * Integer.BYTES);
+                    slot = fleet.addLight(name, power, on, brightness, (flags & FLAG_OCCUPANCY_SENSOR) != 0);
+                }
+                case DeviceFleet.TYPE_HVAC -> slot = fleet.addHVAC(name, power, on,
+                        buffer.getDouble(targetAt + i * Double.BYTES), buffer.getInt(fanAt + i * Integer.BYTES));
+                case DeviceFleet.TYPE_REFRIGERATOR -> slot = fleet.addRefrigerator(name, power, on);
+                default -> throw new IOException("Unknown device type in fleet snapshot: " + name);
+            }
+            int room = buffer.getInt(roomAt + i * Integer.BYTES);
+            if (room >= 0) {
+                fleet.setRoom(slot, roomNames[room]);
+            }
+        }
+
+        for (int i = 0; i < sourceCount; i++) {
+            int at = sourceAt + i * SOURCE_SIZE;
+            double first = buffer.getDouble(at + 1);
+            double second = buffer.getDouble(at + 1 + Double.BYTES);
+            switch (buffer.get(at)) {
+                case SOURCE_SOLAR -> simulator.addRenewableSource(new SolarPanel(first, second));
+                case SOURCE_WIND -> simulator.addRenewableSource(new WindTurbine(first, second));
+                default -> throw new IOException("Unknown renewable source in fleet snapshot");
+            }
+        }
+        return simulator;
+    }
+
+    // Time the snapshot was written (epoch millis), read from the header only
+    public static long createdAt(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Not a fleet snapshot file");
+                }
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a fleet snapshot file");
+            }
+            return header.getLong(24);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt fleet snapshot string table");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buffer, int fileSize) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(HEADER_SIZE).limit(fileSize));
+        return (int) crc.getValue();
+    }
+}
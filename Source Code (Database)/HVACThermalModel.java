@@ -0,0 +1,54 @@
+// Simple thermostat model of a cooling HVAC system, used as a FastForward.DynamicModel.
+// The room drifts towards the outdoor temperature; while running, the HVAC pulls it down at a fixed
+// rate. The compressor switches on above target + deadband/2 and off below target - deadband/2.
+public class HVACThermalModel implements FastForward.DynamicModel {
+    private final double powerWatts;
+    private final double targetTemperature; // in Celsius
+    private final double deadband; // in Celsius
+    private final double outdoorTemperature; // in Celsius
+    private final double leakRate; // fraction of the indoor/outdoor difference closed per hour
+    private final double coolingRate; // Celsius per hour while running
+    private double indoorTemperature; // in Celsius
+    private boolean running;
+
+    // Constructor with explicit thermal parameters
+    public HVACThermalModel(double powerWatts, double targetTemperature, double deadband, double indoorTemperature,
+                            double outdoorTemperature, double leakRate, double coolingRate) {
+        this.powerWatts = powerWatts;
+        this.targetTemperature = targetTemperature;
+        this.deadband = deadband;
+        this.indoorTemperature = indoorTemperature;
+        this.outdoorTemperature = outdoorTemperature;
+        this.leakRate = leakRate;
+        this.coolingRate = coolingRate;
+    }
+
+    // Constructor taking power and target temperature from an HVAC device, with typical house parameters
+    public HVACThermalModel(SmartHVAC hvac, double indoorTemperature, double outdoorTemperature) {
+        this(hvac.getPowerConsumption(), hvac.getTargetTemperature(), 1.0, indoorTemperature,
+                outdoorTemperature, 0.1, 3.0);
+    }
+
+    @Override
+    public double step(double timeHours, double durationHours) {
+        if (indoorTemperature >= targetTemperature + deadband / 2) {
+            running = true;
+        } else if (indoorTemperature <= targetTemperature - deadband / 2) {
+            running = false;
+        }
+        indoorTemperature += (outdoorTemperature - indoorTemperature) * leakRate * durationHours;
+        if (running) {
+            indoorTemperature -= coolingRate * durationHours;
+            return powerWatts * durationHours / 1000.0;
+        }
+        return 0.0;
+    }
+
+    public double getIndoorTemperature() {
+        return indoorTemperature;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// DeviceStore that keeps the latest snapshot of each device on the heap, in insertion order.
+// Nothing touches the disk, so high-rate simulations are limited only by the snapshotting itself.
+public class InMemoryDeviceStore implements DeviceStore {
+    private final Map<String, DeviceRecord> records = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void save(EnergyConsumer device) {
+        records.put(device.getName(), DeviceRecord.of(device));
+    }
+
+    @Override
+    public synchronized void saveAll(List<DeviceRecord> batch) {
+        for (DeviceRecord record : batch) {
+            records.put(record.getName(), record);
+        }
+    }
+
+    // Streams a copy, so saves made while streaming do not disturb the caller
+    @Override
+    public synchronized Stream<DeviceRecord> stream() {
+        return new ArrayList<>(records.values()).stream();
+    }
+
+    // Number of stored devices
+    public synchronized int size() {
+        return records.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        // nothing to release
+    }
+}
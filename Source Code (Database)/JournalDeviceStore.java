@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+// DeviceStore backed by a DeviceJournal. Saves are appended and return once group commit has forced
+// them to disk; stream() reads the latest state of every device. The full history stays available
+// through getJournal().stateAt().
+// The journal is compacted as it grows: once it holds more than twice the records it had after the
+// last compaction, history older than the retention window is folded into one state record per device.
+// A compaction the file system refuses (see DeviceJournal.compact) is simply tried again at the next doubling.
+public class JournalDeviceStore implements DeviceStore {
+    private static final long DEFAULT_RETENTION_MILLIS = 24L * 60 * 60 * 1000; // one day of history
+    private static final long MIN_RECORDS_BEFORE_COMPACT = 100_000;
+
+    private final DeviceJournal journal;
+    private final long retentionMillis;
+    private long compactAtRecords;
+
+    // Opens the store, keeping one day of history
+    public JournalDeviceStore(Path path) {
+        this(path, DEFAULT_RETENTION_MILLIS);
+    }
+
+    // Opens the store, keeping the given amount of history (in millis) when it compacts
+    public JournalDeviceStore(Path path, long retentionMillis) {
+        if (retentionMillis < 0) {
+            throw new IllegalArgumentException("retentionMillis must not be negative");
+        }
+        this.retentionMillis = retentionMillis;
+        try {
+            this.journal = DeviceJournal.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open device journal " + path, e);
+        }
+        this.compactAtRecords = nextCompaction();
+    }
+
+    @Override
+    public void save(EnergyConsumer device) {
+        journal.awaitDurable(journal.append(device));
+        compactIfGrown();
+    }
+
+    @Override
+    public void saveAll(List<DeviceRecord> records) {
+        journal.appendAll(System.currentTimeMillis(), records);
+        compactIfGrown();
+    }
+
+    @Override
+    public Stream<DeviceRecord> stream() {
+        return journal.latest().stream();
+    }
+
+    // The underlying journal, for history queries
+    public DeviceJournal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close device journal", e);
+        }
+    }
+
+    // Folds old history once the journal has doubled since the last compaction
+    private synchronized void compactIfGrown() {
+        if (journal.getRecordCount() < compactAtRecords) {
+            return;
+        }
+        try {
+            journal.compact(System.currentTimeMillis() - retentionMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact device journal", e);
+        }
+        compactAtRecords = nextCompaction();
+    }
+
+    private long nextCompaction() {
+        return Math.max(MIN_RECORDS_BEFORE_COMPACT, 2 * journal.getRecordCount());
+    }
+}
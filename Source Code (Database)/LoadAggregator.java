@@ -0,0 +1,103 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// Running totals of the current load (in Watts) for a whole home, per device type and per room.
+// DeviceFleet publishes the load delta of every state change here, so reading the current
+// total is O(1) no matter how many devices the fleet holds.
+public class LoadAggregator {
+    // Name used for devices without a room
+    public static final String UNASSIGNED_ROOM = "Unassigned";
+
+    private static final int TYPE_COUNT = 4; // one bucket per DeviceFleet type code
+
+    private volatile double totalLoad;
+    private int activeDevices;
+    private final double[] loadByType = new double[TYPE_COUNT];
+    private final int[] activeByType = new int[TYPE_COUNT];
+    private final Map<String, Bucket> rooms = new HashMap<>();
+
+    // Load and number of active devices in one room
+    private static final class Bucket {
+        double load;
+        int active;
+    }
+
+    // Current load of the whole home (in Watts)
+    public double getTotalLoad() {
+        return totalLoad;
+    }
+
+    // Current load of all devices of one DeviceFleet type code (in Watts)
+    public synchronized double getLoadByType(byte type) {
+        return loadByType[type];
+    }
+
+    // Current load of one room (in Watts)
+    public synchronized double getLoadByRoom(String room) {
+        Bucket bucket = rooms.get(roomKey(room));
+        return bucket == null ? 0.0 : bucket.load;
+    }
+
+    // Snapshot of the current load of every room that has had devices
+    public synchronized Map<String, Double> getLoadByRoom() {
+        Map<String, Double> snapshot = new HashMap<>();
+        for (Map.Entry<String, Bucket> entry : rooms.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().load);
+        }
+        return snapshot;
+    }
+
+    // Applies a load change of one device; load is the device's power when on and 0 when off
+    synchronized void update(byte type, String oldRoom, double oldLoad, String newRoom, double newLoad) {
+        if (oldLoad == newLoad && roomKey(oldRoom).equals(roomKey(newRoom))) {
+            return;
+        }
+        remove(type, oldRoom, oldLoad);
+        add(type, newRoom, newLoad);
+    }
+
+    // Counts a device's load in
+    synchronized void add(byte type, String room, double load) {
+        if (load == 0.0) {
+            return;
+        }
+        activeDevices++;
+        totalLoad = totalLoad + load;
+        activeByType[type]++;
+        loadByType[type] += load;
+        Bucket bucket = rooms.computeIfAbsent(roomKey(room), key -> new Bucket());
+        bucket.active++;
+        bucket.load += load;
+    }
+
+    // Counts a device's load out; buckets that become empty are reset to exactly zero to stop drift
+    synchronized void remove(byte type, String room, double load) {
+        if (load == 0.0) {
+            return;
+        }
+        activeDevices--;
+        totalLoad = activeDevices == 0 ? 0.0 : totalLoad - load;
+        activeByType[type]--;
+        loadByType[type] = activeByType[type] == 0 ? 0.0 : loadByType[type] - load;
+        Bucket bucket = rooms.get(roomKey(room));
+        if (bucket != null) {
+            bucket.active--;
+            bucket.load = bucket.active == 0 ? 0.0 : bucket.load - load;
+        }
+    }
+
+    // Forgets every device
+    synchronized void reset() {
+        totalLoad = 0.0;
+        activeDevices = 0;
+        for (int t = 0; t < TYPE_COUNT; t++) {
+            loadByType[t] = 0.0;
+            activeByType[t] = 0;
+        }
+        rooms.clear();
+    }
+
+    private static String roomKey(String room) {
+        return room == null ? UNASSIGNED_ROOM : room;
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds the cheapest run times for deferrable loads (HVAC pre-cooling, fridge defrost, ...) given a
+// price table and the home's forecast net load (consumption minus generation) per step.
+// Each load is placed by dynamic programming over the time steps, with the state being the number
+// of steps it has run so far. Loads are placed one after another, largest energy first, each on top
+// of the net load left by the loads before it, so later loads see solar already used up.
+// Tier adders are ignored when comparing steps; time-of-use prices and export credit are honoured.
+public class LoadShiftOptimizer {
+
+    // A load that must run for runSteps steps somewhere within [earliestStep, latestEndStep)
+    public static final class DeferrableLoad {
+        private final String name;
+        private final double powerWatts;
+        private final int runSteps;
+        private final int earliestStep;
+        private final int latestEndStep;
+        private final boolean contiguous; // must run in one block once started
+
+        public DeferrableLoad(String name, double powerWatts, int runSteps, int earliestStep,
+                              int latestEndStep, boolean contiguous) {
+            if (runSteps < 0 || earliestStep < 0 || latestEndStep - earliestStep < runSteps) {
+                throw new IllegalArgumentException(name + ": cannot run " + runSteps + " steps in ["
+                        + earliestStep + ", " + latestEndStep + ")");
+            }
+            this.name = name;
+            this.powerWatts = powerWatts;
+            this.runSteps = runSteps;
+            this.earliestStep = earliestStep;
+            this.latestEndStep = latestEndStep;
+            this.contiguous = contiguous;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getPowerWatts() {
+            return powerWatts;
+        }
+
+        public int getRunSteps() {
+            return runSteps;
+        }
+    }
+
+    // The chosen schedule: for each load, whether it runs in each step
+    public static final class Plan {
+        private final List<DeferrableLoad> loads;
+        private final boolean[][] running;
+        private final double cost;
+
+        Plan(List<DeferrableLoad> loads, boolean[][] running, double cost) {
+            this.loads = loads;
+            this.running = running;
+            this.cost = cost;
+        }
+
+        public int getLoadCount() {
+            return loads.size();
+        }
+
+        public DeferrableLoad getLoad(int index) {
+            return loads.get(index);
+        }
+
+        public boolean isRunning(int load, int step) {
+            return running[load][step];
+        }
+
+        // First step in which the load runs, or -1
+        public int getStartStep(int load) {
+            for (int step = 0; step < running[load].length; step++) {
+                if (running[load][step]) {
+                    return step;
+                }
+            }
+            return -1;
+        }
+
+        // Cost of the whole home (baseline plus shifted loads) under the plan, in dollars
+        public double getCost() {
+            return cost;
+        }
+    }
+
+    private final PriceTable prices;
+    private final double[] baselineNet; // forecast consumption - generation per step, in kWh
+    private final double stepHours;
+    private final List<DeferrableLoad> loads = new ArrayList<>();
+
+    // Constructor taking the prices, the forecast net load per step (kWh) and the step length (hours)
+    public LoadShiftOptimizer(PriceTable prices, double[] baselineNet, double stepHours) {
+        if (prices.getStepCount() < baselineNet.length) {
+            throw new IllegalArgumentException("Price table shorter than the forecast");
+        }
+        this.prices = prices;
+        this.baselineNet = baselineNet.clone();
+        this.stepHours = stepHours;
+    }
+
+    // Method to add a deferrable load
+    public LoadShiftOptimizer addLoad(DeferrableLoad load) {
+        if (load.latestEndStep > baselineNet.length) {
+            throw new IllegalArgumentException(load.name + " ends after the forecast horizon");
+        }
+        loads.add(load);
+        return this;
+    }
+
+    // Computes the cheapest plan
+    public Plan optimize() {
+        int steps = baselineNet.length;
+        double[] net = baselineNet.clone();
+        boolean[][] running = new boolean[loads.size()][steps];
+
+        Integer[] order = new Integer[loads.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(energyOf(loads.get(b)), energyOf(loads.get(a))));
+
+        double[] marginal = new double[steps];
+        for (int index : order) {
+            DeferrableLoad load = loads.get(index);
+            double energy = energyOf(load) / Math.max(load.runSteps, 1);
+            for (int t = load.earliestStep; t < load.latestEndStep; t++) {
+                marginal[t] = stepCost(t, net[t] + energy) - stepCost(t, net[t]);
+            }
+            place(load, marginal, running[index]);
+            for (int t = 0; t < steps; t++) {
+                if (running[index][t]) {
+                    net[t] += energy;
+                }
+            }
+        }
+
+        double cost = 0.0;
+        for (int t = 0; t < steps; t++) {
+            cost += stepCost(t, net[t]);
+        }
+        return new Plan(new ArrayList<>(loads), running, cost);
+    }
+
+    // Optimizes many homes in parallel on the common fork/join pool
+    public static List<Plan> optimizeAll(List<LoadShiftOptimizer> homes) {
+        return homes.parallelStream().map(LoadShiftOptimizer::optimize).toList();
+    }
+
+    // Dynamic program over [earliestStep, latestEndStep): best[k] = cheapest way to have run k steps so far
+    private static void place(DeferrableLoad load, double[] marginal, boolean[] out) {
+        int d = load.runSteps;
+        int from = load.earliestStep;
+        int span = load.latestEndStep - from;
+        double[] best = new double[d + 1];
+        double[] next = new double[d + 1];
+        boolean[][] ran = new boolean[span][d + 1]; // whether state k at step t was reached by running
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        best[0] = 0.0;
+
+        for (int i = 0; i < span; i++) {
+            double m = marginal[from + i];
+            for (int k = 0; k <= d; k++) {
+                boolean mayIdle = k == 0 || k == d || !load.contiguous;
+                double idle = mayIdle ? best[k] : Double.POSITIVE_INFINITY;
+                double run = k > 0 ? best[k - 1] + m : Double.POSITIVE_INFINITY;
+                if (run < idle) {
+                    next[k] = run;
+                    ran[i][k] = true;
+                } else {
+                    next[k] = idle;
+                }
+            }
+            double[] swap = best;
+            best = next;
+            next = swap;
+        }
+
+        // Walk back from "all steps done" at the end of the window
+        int k = d;
+        for (int i = span - 1; i >= 0; i--) {
+            if (ran[i][k]) {
+                out[from + i] = true;
+                k--;
+            }
+        }
+    }
+
+    // Cost of exchanging `flow` kWh with the grid in one step (positive = import, negative = export)
+    private double stepCost(int step, double flow) {
+        return flow > 0 ? flow * prices.getPrice(step) : flow * prices.getExportCredit();
+    }
+
+    private double energyOf(DeferrableLoad load) {
+        return load.powerWatts * stepHours / 1000.0 * load.runSteps;
+    }
+}
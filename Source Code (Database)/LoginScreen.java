@@ -1,19 +1,24 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginScreen extends JFrame {
 
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
-    private SmartHomeSimulator simulator;
-    private DeviceDatabase db;
-    private Map<String, String> users = new HashMap<>();
+    private StartupPipeline startup; // opens the store and loads the fleet while the user logs in
+    private CredentialStore credentials; // salted password hashes in users.idx
+    private CompletableFuture<Void> credentialsReady; // completes once users.idx exists
+
+    private static final Path CREDENTIALS_FILE = Paths.get("users.idx");
+    private static final Path LEGACY_USERS_FILE = Paths.get("users.txt");
 
     public LoginScreen() {
+        startup = StartupPipeline.start(0.30);
+
         setTitle("Smart Home Login");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new FlowLayout());
@@ -22,15 +27,9 @@ public class LoginScreen extends JFrame {
         passwordField = new JPasswordField(15);
         loginButton = new JButton("Login");
 
-        loadUsers();  // Load users from users.txt
+        loadUsers();  // Open the credential store (lazily; nothing is read yet)
 
-        loginButton.addActionListener(e -> {
-            if (authenticate()) {
-                openSmartHomeGUI();
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid username or password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
-            }
-        });
+        loginButton.addActionListener(e -> authenticate());
 
         add(new JLabel("Username:"));
         add(usernameField);
@@ -41,40 +40,60 @@ public class LoginScreen extends JFrame {
         pack();
         setLocationRelativeTo(null);
         setVisible(true);
-
-        // Initialize your simulator and DB instances here
-        db = new DeviceDatabase();
-        simulator = new SmartHomeSimulator(0.30);
     }
 
     private void loadUsers() {
-        File file = new File("users.txt");
-        if (!file.exists()) {
-            JOptionPane.showMessageDialog(this, "users.txt not found! Please create the file with user credentials.", "Error", JOptionPane.ERROR_MESSAGE);
+        credentials = new CredentialStore(CREDENTIALS_FILE);
+        if (credentials.exists()) {
+            credentialsReady = CompletableFuture.completedFuture(null);
+        } else if (LEGACY_USERS_FILE.toFile().exists()) {
+            // One-time migration: hash the plaintext passwords in the background while the frame is shown
+            System.out.println("Converting users.txt to hashed credentials in users.idx...");
+            credentialsReady = credentials.importPlaintextAsync(LEGACY_USERS_FILE).thenRun(() ->
+                    System.out.println("users.idx created; users.txt is no longer read and can be deleted."));
+        } else {
+            JOptionPane.showMessageDialog(this, "users.idx not found! Create it with: java CredentialStore add users.idx <username> <password>", "Error", JOptionPane.ERROR_MESSAGE);
             System.exit(1);
         }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if(line.trim().isEmpty() || !line.contains(":")) continue;
-                String[] parts = line.split(":", 2);
-                users.put(parts[0].trim(), parts[1].trim());
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
     }
 
-    private boolean authenticate() {
+    // Verifies the password on the credential store's executor, so the EDT never runs the slow hash
+    private void authenticate() {
         String username = usernameField.getText().trim();
-        String password = new String(passwordField.getPassword());
-        return users.containsKey(username) && users.get(username).equals(password);
+        char[] password = passwordField.getPassword();
+        loginButton.setEnabled(false);
+
+        credentialsReady.thenCompose(ready -> credentials.verifyAsync(username, password))
+                .whenComplete((valid, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null && valid) {
+                        openSmartHomeGUI();
+                        return;
+                    }
+                    if (error != null) {
+                        error.printStackTrace();
+                    }
+                    JOptionPane.showMessageDialog(this, "Invalid username or password.", "Login Failed", JOptionPane.ERROR_MESSAGE);
+                    loginButton.setEnabled(true);
+                }));
     }
 
+    // Opens the controller once startup has finished; usually it already has by the time the user logs in
     private void openSmartHomeGUI() {
-        new SmartHomeGUI(simulator, db);
-        this.dispose();
+        loginButton.setEnabled(false);
+        if (!startup.isDone()) {
+            loginButton.setText("Loading...");
+        }
+        startup.whenReady((simulator, store) -> SwingUtilities.invokeLater(() -> {
+            new SmartHomeGUI(simulator, store);
+            this.dispose();
+        })).exceptionally(error -> {
+            SwingUtilities.invokeLater(() -> {
+                JOptionPane.showMessageDialog(this, "Could not load the smart home: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                loginButton.setText("Login");
+                loginButton.setEnabled(true);
+            });
+            return null;
+        });
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,153 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs many independent replications of a scenario in parallel and summarizes cost and net energy.
+// Replication i always gets the random stream derived from (masterSeed, i) and writes to slot i,
+// so results are identical for a given master seed no matter how many threads run them.
+public class MonteCarloSimulator {
+
+    // One replication of a scenario: build a fresh home, run it with the given random stream
+    public interface Scenario {
+        SimulationResult run(SplittableRandom random);
+    }
+
+    // Distributions of cost and net grid energy over all replications
+    public static final class Summary {
+        private final Distribution cost;
+        private final Distribution netEnergy;
+
+        Summary(Distribution cost, Distribution netEnergy) {
+            this.cost = cost;
+            this.netEnergy = netEnergy;
+        }
+
+        public Distribution getCost() {
+            return cost;
+        }
+
+        public Distribution getNetEnergy() {
+            return netEnergy;
+        }
+
+        @Override
+        public String toString() {
+            return "Cost ($): " + cost + "\nNet energy (kWh): " + netEnergy;
+        }
+    }
+
+    private static final int SEQUENTIAL_THRESHOLD = 16; // replications per leaf task
+
+    private final ForkJoinPool pool;
+
+    // Constructor using the common fork/join pool (all cores)
+    public MonteCarloSimulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // Constructor using a specific pool, e.g. new ForkJoinPool(4)
+    public MonteCarloSimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Runs the scenario `replications` times and summarizes the results
+    public Summary run(Scenario scenario, int replications, long masterSeed) {
+        if (replications <= 0) {
+            throw new IllegalArgumentException("replications must be positive");
+        }
+        double[] cost = new double[replications];
+        double[] netEnergy = new double[replications];
+        pool.invoke(new ReplicationTask(scenario, masterSeed, cost, netEnergy, 0, replications));
+        return new Summary(new Distribution(cost), new Distribution(netEnergy));
+    }
+
+    // Random stream for one replication, derived only from the master seed and the replication index
+    static SplittableRandom streamFor(long masterSeed, int replication) {
+        return new SplittableRandom(mix64(masterSeed + (replication + 1) * 0x9E3779B97F4A7C15L));
+    }
+
+    // SplitMix64 finalizer
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class ReplicationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Scenario scenario;
+        private final long masterSeed;
+        private final double[] cost;
+        private final double[] netEnergy;
+        private final int from;
+        private final int to;
+
+        ReplicationTask(Scenario scenario, long masterSeed, double[] cost, double[] netEnergy, int from, int to) {
+            this.scenario = scenario;
+            this.masterSeed = masterSeed;
+            this.cost = cost;
+            this.netEnergy = netEnergy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    SimulationResult result = scenario.run(streamFor(masterSeed, i));
+                    cost[i] = result.getCost();
+                    netEnergy[i] = result.getNetEnergyConsumption();
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ReplicationTask(scenario, masterSeed, cost, netEnergy, from, mid),
+                      new ReplicationTask(scenario, masterSeed, cost, netEnergy, mid, to));
+        }
+    }
+
+    // The classic 24-hour day: all devices on, random wind, schedule changes at 6, 18 and 22.
+    // Uses the silent setters so thousands of replications don't flood the device event log.
+    public static SimulationResult dailyScenario(SplittableRandom random, double electricityPricePerKWh) {
+        SmartHomeSimulator simulator = new SmartHomeSimulator(electricityPricePerKWh);
+        for (EnergyConsumer device : simulator.getDevices()) {
+            device.applyState(device.getPowerConsumption(), true);
+        }
+        SmartLight livingRoomLight = (SmartLight) simulator.getDevices().get(0);
+        SmartHVAC hvac = (SmartHVAC) simulator.getDevices().get(2);
+
+        DailyWeatherModel weather = DailyWeatherModel.forSimulator(simulator, random.nextLong());
+        simulator.setEnvironmentModel(time -> {
+            weather.apply(time);
+            int hour = (int) time;
+            if (hour == 6) {
+                livingRoomLight.applyBrightness(20);
+                hvac.applySettings(24, 1);
+            } else if (hour == 18) {
+                livingRoomLight.applyBrightness(80);
+                hvac.applySettings(22, 2);
+            } else if (hour == 22) {
+                hvac.applyState(hvac.getPowerConsumption(), false);
+            }
+        });
+
+        TimeSeriesResult day = simulator.simulate(0, 24, 1.0);
+        return new SimulationResult(24, day.getTotalConsumption(), day.getTotalGeneration(),
+                day.getTotalNetConsumption(), day.getTotalCost(), SimulationResult.NO_DEVICE_ENERGY);
+    }
+
+    // Runs the daily scenario from the command line: java MonteCarloSimulator [replications] [seed]
+    public static void main(String[] args) {
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new Random().nextLong();
+
+        long start = System.nanoTime();
+        Summary summary = new MonteCarloSimulator().run(random -> dailyScenario(random, 0.30), replications, seed);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("--- Monte Carlo Results (" + replications + " days, seed " + seed + ", " + elapsed + " ms) ---");
+        System.out.println(summary);
+    }
+}
@@ -0,0 +1,102 @@
+// A Tariff compiled for one horizon: the time-of-use import price of every step in a primitive array,
+// plus the tier blocks and export credit. Untiered costs are a single multiply-add pass over the arrays.
+// Tier consumption resets on absolute billing period boundaries (see Tariff.Meter), not at the horizon start.
+public final class PriceTable {
+    private final double startHour; // absolute time of step 0 (in hours)
+    private final double stepHours;
+    private final double[] importPrice; // dollars per kWh for each step
+    private final double[] tierThresholds; // kWh per billing period, ascending
+    private final double[] tierAdders; // extra dollars per kWh above each threshold
+    private final double billingPeriodHours;
+    private final double exportCredit; // dollars per kWh exported
+
+    PriceTable(double startHour, double stepHours, double[] importPrice, double[] tierThresholds, double[] tierAdders,
+               double billingPeriodHours, double exportCredit) {
+        this.startHour = startHour;
+        this.stepHours = stepHours;
+        this.importPrice = importPrice;
+        this.tierThresholds = tierThresholds;
+        this.tierAdders = tierAdders;
+        this.billingPeriodHours = billingPeriodHours;
+        this.exportCredit = exportCredit;
+    }
+
+    public int getStepCount() {
+        return importPrice.length;
+    }
+
+    // Time-of-use import price of a step (before tier adders)
+    public double getPrice(int step) {
+        return importPrice[step];
+    }
+
+    public double getExportCredit() {
+        return exportCredit;
+    }
+
+    // Writes the cost of each step into out (in dollars; negative when export credit exceeds import cost)
+    public void costSeries(double[] consumption, double[] generation, int steps, double[] out) {
+        if (consumption.length < steps || generation.length < steps) {
+            throw new IllegalArgumentException("Series shorter than " + steps + " steps");
+        }
+        double[] gridFlow = new double[steps];
+        for (int t = 0; t < steps; t++) {
+            gridFlow[t] = consumption[t] - generation[t];
+        }
+        costSeries(gridFlow, steps, out);
+    }
+
+    // Same, from the net grid exchange of each step (positive = import, negative = export, in kWh)
+    public void costSeries(double[] gridFlow, int steps, double[] out) {
+        if (steps > importPrice.length || gridFlow.length < steps || out.length < steps) {
+            throw new IllegalArgumentException("Series shorter than " + steps + " steps");
+        }
+        if (tierThresholds.length == 0) {
+            // Time-of-use part and export credit: independent per step
+            for (int t = 0; t < steps; t++) {
+                double imported = Math.max(gridFlow[t], 0.0);
+                double exported = Math.max(-gridFlow[t], 0.0);
+                out[t] = imported * importPrice[t] - exported * exportCredit;
+            }
+            return;
+        }
+        // Tier adders depend on consumption so far in the billing period
+        Tariff.Meter meter = meter();
+        for (int t = 0; t < steps; t++) {
+            out[t] = meter.cost(getTime(t), importPrice[t], gridFlow[t]);
+        }
+    }
+
+    // Start time of the given step (in hours)
+    public double getTime(int step) {
+        return startHour + step * stepHours;
+    }
+
+    // Meter for pricing this table's steps one at a time, in order: meter.cost(getTime(step), getPrice(step), gridFlow)
+    public Tariff.Meter meter() {
+        return new Tariff.Meter(tierThresholds, tierAdders, billingPeriodHours, exportCredit);
+    }
+
+    // Total cost over the first `steps` steps
+    public double cost(double[] consumption, double[] generation, int steps) {
+        double[] perStep = new double[steps];
+        costSeries(consumption, generation, steps, perStep);
+        return sum(perStep);
+    }
+
+    // Total cost of a time-series result re-priced with this table, from its grid exchange after battery dispatch
+    public double cost(TimeSeriesResult result) {
+        int steps = result.getStepCount();
+        double[] perStep = new double[steps];
+        costSeries(result.getGridFlowSeries(), steps, perStep);
+        return sum(perStep);
+    }
+
+    private static double sum(double[] values) {
+        double total = 0.0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+// Batch generation for large fleets of solar panels and wind turbines spread over several sites.
+// Output is linear in sunlight and in the cube of wind speed, so the constant geometry of every
+// source is folded once into a per-site coefficient; a whole weather time series is then
+// evaluated with one branch-free loop per site over primitive arrays, which HotSpot vectorizes.
+public class RenewableFleet {
+    private double[] solarCoefficient; // sum of panel coefficients per site (W per W/m^2)
+    private double[] windCoefficient; // sum of turbine coefficients per site (W per (m/s)^3)
+    private int siteCount;
+    private int panelCount;
+    private int turbineCount;
+
+    // Constructor for a fleet with the given number of sites
+    public RenewableFleet(int siteCount) {
+        if (siteCount <= 0) {
+            throw new IllegalArgumentException("siteCount must be positive");
+        }
+        this.siteCount = siteCount;
+        this.solarCoefficient = new double[siteCount];
+        this.windCoefficient = new double[siteCount];
+    }
+
+    // Adds a solar panel at a site
+    public void addSolarPanel(int site, SolarPanel panel) {
+        addSolarPanel(site, panel.getPowerCoefficient());
+    }
+
+    // Adds a solar panel at a site, given surface area * efficiency
+    public void addSolarPanel(int site, double powerCoefficient) {
+        checkSite(site);
+        solarCoefficient[site] += powerCoefficient;
+        panelCount++;
+    }
+
+    // Adds a wind turbine at a site
+    public void addWindTurbine(int site, WindTurbine turbine) {
+        addWindTurbine(site, turbine.getPowerCoefficient());
+    }
+
+    // Adds a wind turbine at a site, given its power coefficient (see WindTurbine.getPowerCoefficient())
+    public void addWindTurbine(int site, double powerCoefficient) {
+        checkSite(site);
+        windCoefficient[site] += powerCoefficient;
+        turbineCount++;
+    }
+
+    // Adds any supported source at a site
+    public void add(int site, RenewableEnergySource source) {
+        if (source instanceof SolarPanel panel) {
+            addSolarPanel(site, panel);
+        } else if (source instanceof WindTurbine turbine) {
+            addWindTurbine(site, turbine);
+        } else {
+            throw new IllegalArgumentException("Unsupported renewable source: " + source.getClass().getSimpleName());
+        }
+    }
+
+    public int getSiteCount() {
+        return siteCount;
+    }
+
+    public int getPanelCount() {
+        return panelCount;
+    }
+
+    public int getTurbineCount() {
+        return turbineCount;
+    }
+
+    // Computes total fleet output (in Watts) for each of the first `steps` weather samples.
+    // sunlight[site] and windSpeed[site] hold that site's series; a null series means no such input.
+    public void generatePower(double[][] sunlight, double[][] windSpeed, int steps, double[] outWatts) {
+        if (outWatts.length < steps) {
+            throw new IllegalArgumentException("Output array too small: " + outWatts.length + " < " + steps);
+        }
+        Arrays.fill(outWatts, 0, steps, 0.0);
+        for (int site = 0; site < siteCount; site++) {
+            double solar = solarCoefficient[site];
+            double[] sun = sunlight == null ? null : sunlight[site];
+            if (solar != 0.0 && sun != null) {
+                checkLength(sun, steps);
+                for (int t = 0; t < steps; t++) {
+                    outWatts[t] += solar * sun[t];
+                }
+            }
+            double wind = windCoefficient[site];
+            double[] speed = windSpeed == null ? null : windSpeed[site];
+            if (wind != 0.0 && speed != null) {
+                checkLength(speed, steps);
+                for (int t = 0; t < steps; t++) {
+                    double v = speed[t];
+                    outWatts[t] += wind * v * v * v;
+                }
+            }
+        }
+    }
+
+    // Like generatePower, but converts each sample to energy over a step of the given length (in kWh)
+    public void generateEnergy(double[][] sunlight, double[][] windSpeed, int steps, double stepHours, double[] outKWh) {
+        generatePower(sunlight, windSpeed, steps, outKWh);
+        double factor = stepHours / 1000.0;
+        for (int t = 0; t < steps; t++) {
+            outKWh[t] *= factor;
+        }
+    }
+
+    // Total fleet output (in Watts) for a single weather sample per site
+    public double generatePower(double[] sunlightBySite, double[] windSpeedBySite) {
+        double total = 0.0;
+        for (int site = 0; site < siteCount; site++) {
+            double v = windSpeedBySite[site];
+            total += solarCoefficient[site] * sunlightBySite[site] + windCoefficient[site] * v * v * v;
+        }
+        return total;
+    }
+
+    private void checkSite(int site) {
+        if (site < 0 || site >= siteCount) {
+            throw new IndexOutOfBoundsException("Site " + site + " out of range (sites " + siteCount + ")");
+        }
+    }
+
+    private static void checkLength(double[] series, int steps) {
+        if (series.length < steps) {
+            throw new IllegalArgumentException("Weather series too short: " + series.length + " < " + steps);
+        }
+    }
+}
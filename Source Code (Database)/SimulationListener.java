@@ -0,0 +1,15 @@
+// Interface for opt-in consumers (console output, logging, charts) of simulation results
+public interface SimulationListener {
+    // Called once after each simulate() step (and for each step of a time-series run, if requested below)
+    void onSimulationResult(SimulationResult result);
+
+    // Whether this listener also receives every step of the time-series simulate(start, end, step) runs
+    default boolean receivesTimeSeriesSteps() {
+        return false;
+    }
+
+    // Whether this listener reads the per-device energy of each step (it is only recorded when some listener does)
+    default boolean needsDeviceEnergy() {
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+
+// Immutable result of one SmartHomeSimulator.simulate() step
+public final class SimulationResult {
+    // Shared placeholder used when per-device energy was not requested
+    static final double[] NO_DEVICE_ENERGY = new double[0];
+
+    private final double duration; // in hours
+    private final double totalEnergyConsumption; // in kWh
+    private final double totalRenewableEnergy; // in kWh
+    private final double netEnergyConsumption; // in kWh, never negative
+    private final double cost; // in dollars
+    private final double[] deviceEnergy; // kWh per device, indexed like SmartHomeSimulator.getDevices()
+
+    // Constructor for the SimulationResult (takes ownership of the deviceEnergy array)
+    SimulationResult(double duration, double totalEnergyConsumption, double totalRenewableEnergy,
+                     double netEnergyConsumption, double cost, double[] deviceEnergy) {
+        this.duration = duration;
+        this.totalEnergyConsumption = totalEnergyConsumption;
+        this.totalRenewableEnergy = totalRenewableEnergy;
+        this.netEnergyConsumption = netEnergyConsumption;
+        this.cost = cost;
+        this.deviceEnergy = deviceEnergy;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getTotalEnergyConsumption() {
+        return totalEnergyConsumption;
+    }
+
+    public double getTotalRenewableEnergy() {
+        return totalRenewableEnergy;
+    }
+
+    public double getNetEnergyConsumption() {
+        return netEnergyConsumption;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    // Whether per-device energy was recorded for this step
+    public boolean hasDeviceEnergy() {
+        return deviceEnergy != NO_DEVICE_ENERGY;
+    }
+
+    // Number of entries in the per-device energy array
+    public int getDeviceCount() {
+        return deviceEnergy.length;
+    }
+
+    // Energy used by the device at the given index during this step, in kWh
+    public double getDeviceEnergy(int index) {
+        return deviceEnergy[index];
+    }
+
+    // Copy of the per-device energy array
+    public double[] getDeviceEnergies() {
+        return deviceEnergy.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult[consumption=" + totalEnergyConsumption + " kWh, renewable=" + totalRenewableEnergy
+                + " kWh, net=" + netEnergyConsumption + " kWh, cost=$" + cost
+                + ", devices=" + Arrays.toString(deviceEnergy) + "]";
+    }
+}
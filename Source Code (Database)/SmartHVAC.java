@@ -14,7 +14,11 @@ public class SmartHVAC extends EnergyConsumer {
 
     public void setTargetTemperature(double targetTemperature) {
         this.targetTemperature = targetTemperature;
-        System.out.println(getName() + " target temperature set to " + targetTemperature + "°C.");
+        publishState();
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "target temperature set to " + targetTemperature + "°C.");
+        }
     }
 
     public int getFanSpeed() {
@@ -23,7 +27,18 @@ public class SmartHVAC extends EnergyConsumer {
 
     public void setFanSpeed(int fanSpeed) {
         this.fanSpeed = fanSpeed;
-        System.out.println(getName() + " fan speed set to " + fanSpeed + ".");
+        publishState();
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "fan speed set to " + fanSpeed + ".");
+        }
+    }
+
+    // Restores target temperature and fan speed without printing, used when rebuilding devices from stored state
+    void applySettings(double targetTemperature, int fanSpeed) {
+        this.targetTemperature = targetTemperature;
+        this.fanSpeed = fanSpeed;
+        publishState();
     }
 
     public void setStatus(boolean status) {
@@ -1,156 +1,201 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableColumnModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.util.List;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 public class SmartHomeGUI extends JFrame {
 
     private SmartHomeSimulator simulator;
-    private DeviceDatabase db;
-    private JPanel devicesPanel;
-
-    public SmartHomeGUI(SmartHomeSimulator simulator, DeviceDatabase db) {
+    private DeviceStore store;
+    private DeviceWriteBehind writeBehind; // saves device changes off the EDT
+    private DeviceTableModel tableModel; // reads the fleet columns; only visible rows are rendered
+    private JTable deviceTable;
+    private TableRowSorter<DeviceTableModel> sorter;
+    private JComboBox<String> typeFilter;
+    private JComboBox<String> statusFilter;
+    private JTextField minPowerField;
+    private JLabel summaryLabel;
+
+    public SmartHomeGUI(SmartHomeSimulator simulator, DeviceStore store) {
         this.simulator = simulator;
-        this.db = db;
+        this.store = store;
+        this.writeBehind = new DeviceWriteBehind(store);
 
         setTitle("Smart Home Controller");
-        setSize(700, 500);
+        setSize(900, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        devicesPanel = new JPanel();
-        devicesPanel.setLayout(new GridLayout(0, 1, 10, 10));
-        add(new JScrollPane(devicesPanel), BorderLayout.CENTER);
+        // Write any pending device changes before the application exits
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                writeBehind.close();
+                store.close();
+            }
+        });
+
+        // Filters by type, status and minimum power
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        typeFilter = new JComboBox<>(new String[]{"All types", "Light", "HVAC", "Refrigerator"}); // index = type code
+        statusFilter = new JComboBox<>(new String[]{"On and off", "On", "Off"});
+        minPowerField = new JTextField(6);
+        filterPanel.add(new JLabel("Type:"));
+        filterPanel.add(typeFilter);
+        filterPanel.add(new JLabel("Status:"));
+        filterPanel.add(statusFilter);
+        filterPanel.add(new JLabel("Min power (W):"));
+        filterPanel.add(minPowerField);
+        add(filterPanel, BorderLayout.NORTH);
+
+        deviceTable = new JTable();
+        add(new JScrollPane(deviceTable), BorderLayout.CENTER);
+
+        summaryLabel = new JLabel();
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        add(summaryLabel, BorderLayout.SOUTH);
+
+        displayDevices(); // Populate the table with devices
+
+        typeFilter.addActionListener(e -> applyFilters());
+        statusFilter.addActionListener(e -> applyFilters());
+        minPowerField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyFilters();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyFilters();
+            }
 
-        displayDevices(); // Populate the panel with devices
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyFilters();
+            }
+        });
 
         setVisible(true); // Make the GUI visible
     }
 
     private void displayDevices() {
-        List<EnergyConsumer> devices = simulator.getDevices();
-        devicesPanel.removeAll();
-
-        if (devices != null) {
-            for (EnergyConsumer device : devices) {
-                JPanel deviceInfoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-                JLabel nameLabel = new JLabel(device.getName() + ": ");
-                JLabel statusLabel = new JLabel("Status: " + (device.isStatus() ? "ON" : "OFF"));
-                JButton onButton = new JButton("ON");
-                JButton offButton = new JButton("OFF");
-
-                onButton.addActionListener(e -> {
-                    device.turnOn();
-                    statusLabel.setText("Status: ON");
-                    updateDeviceDetails(deviceInfoPanel, device);
-                    db.saveDevice(device);  // SAVE TO DB
-                });
-
-                offButton.addActionListener(e -> {
-                    device.turnOff();
-                    statusLabel.setText("Status: OFF");
-                    updateDeviceDetails(deviceInfoPanel, device);
-                    db.saveDevice(device);  // SAVE TO DB
-                });
-
-                deviceInfoPanel.add(nameLabel);
-                deviceInfoPanel.add(statusLabel);
-                deviceInfoPanel.add(onButton);
-                deviceInfoPanel.add(offButton);
-
-                if (device instanceof SmartLight) {
-                    SmartLight light = (SmartLight) device;
-                    JLabel brightnessLabel = new JLabel("Brightness: " + light.getBrightness() + "%");
-                    deviceInfoPanel.add(brightnessLabel);
-
-                    JButton dimButton = new JButton("Dim");
-                    dimButton.addActionListener(e -> {
-                        String brightnessStr = JOptionPane.showInputDialog(SmartHomeGUI.this, "Enter brightness (0-100):", light.getBrightness());
-                        if (brightnessStr != null) {
-                            try {
-                                int newBrightness = Integer.parseInt(brightnessStr);
-                                if (newBrightness >= 0 && newBrightness <= 100) {
-                                    light.dim(newBrightness);
-                                    updateDeviceDetails(deviceInfoPanel, device);
-                                    db.saveDevice(device); // SAVE TO DB
-                                } else {
-                                    JOptionPane.showMessageDialog(SmartHomeGUI.this, "Invalid brightness value (0-100).");
-                                }
-                            } catch (NumberFormatException ex) {
-                                JOptionPane.showMessageDialog(SmartHomeGUI.this, "Invalid input. Please enter a number.");
-                            }
-                        }
-                    });
-                    deviceInfoPanel.add(dimButton);
-
-                } else if (device instanceof SmartHVAC) {
-                    SmartHVAC hvac = (SmartHVAC) device;
-                    JLabel tempLabel = new JLabel("Target Temp: " + hvac.getTargetTemperature() + "°C");
-                    JLabel fanLabel = new JLabel("Fan: " + hvac.getFanSpeed());
-                    deviceInfoPanel.add(tempLabel);
-                    deviceInfoPanel.add(fanLabel);
-
-                    JButton setTempButton = new JButton("Set Temp");
-                    setTempButton.addActionListener(e -> {
-                        String tempStr = JOptionPane.showInputDialog(SmartHomeGUI.this, "Enter target temperature (°C):", hvac.getTargetTemperature());
-                        if (tempStr != null) {
-                            try {
-                                double newTemp = Double.parseDouble(tempStr);
-                                hvac.setTargetTemperature(newTemp);
-                                updateDeviceDetails(deviceInfoPanel, device);
-                                db.saveDevice(device);  // SAVE TO DB
-                            } catch (NumberFormatException ex) {
-                                JOptionPane.showMessageDialog(SmartHomeGUI.this, "Invalid input. Please enter a number.");
-                            }
-                        }
-                    });
-                    deviceInfoPanel.add(setTempButton);
-
-                    JButton setFanButton = new JButton("Set Fan");
-                    setFanButton.addActionListener(e -> {
-                        String fanStr = JOptionPane.showInputDialog(SmartHomeGUI.this, "Enter fan speed (0-3):", hvac.getFanSpeed());
-                        if (fanStr != null) {
-                            try {
-                                int newFan = Integer.parseInt(fanStr);
-                                if (newFan >= 0 && newFan <= 3) {
-                                    hvac.setFanSpeed(newFan);
-                                    updateDeviceDetails(deviceInfoPanel, device);
-                                    db.saveDevice(device);  // SAVE TO DB
-                                } else {
-                                    JOptionPane.showMessageDialog(SmartHomeGUI.this, "Invalid fan speed (0-3).");
-                                }
-                            } catch (NumberFormatException ex) {
-                                JOptionPane.showMessageDialog(SmartHomeGUI.this, "Invalid input. Please enter a number.");
-                            }
-                        }
-                    });
-                    deviceInfoPanel.add(setFanButton);
-                }
+        tableModel = new DeviceTableModel(simulator.getFleet(), writeBehind);
+        tableModel.addTableModelListener(e -> updateSummary());
+        deviceTable.setModel(tableModel);
+        deviceTable.setFillsViewportHeight(true);
+        deviceTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        sorter = new TableRowSorter<>(tableModel);
+        deviceTable.setRowSorter(sorter);
+
+        // Renderers and editors for the numeric columns
+        TableColumnModel columns = deviceTable.getColumnModel();
+        columns.getColumn(DeviceTableModel.NAME).setPreferredWidth(200);
+        columns.getColumn(DeviceTableModel.POWER).setCellRenderer(new FormatRenderer("%.0f"));
+        columns.getColumn(DeviceTableModel.TARGET_TEMPERATURE).setCellRenderer(new FormatRenderer("%.1f"));
+        columns.getColumn(DeviceTableModel.BRIGHTNESS).setCellEditor(new RangeEditor(0, 100, "Invalid brightness value (0-100)."));
+        columns.getColumn(DeviceTableModel.FAN_SPEED).setCellEditor(new DefaultCellEditor(new JComboBox<>(new Integer[]{0, 1, 2, 3})));
+
+        updateSummary();
+    }
 
-                devicesPanel.add(deviceInfoPanel);
+    // Shows only the rows matching the type, status and minimum power filters
+    private void applyFilters() {
+        int type = typeFilter.getSelectedIndex();
+        int status = statusFilter.getSelectedIndex();
+        double minPower = 0;
+        String minPowerText = minPowerField.getText().trim();
+        if (!minPowerText.isEmpty()) {
+            try {
+                minPower = Double.parseDouble(minPowerText);
+                minPowerField.setForeground(UIManager.getColor("TextField.foreground"));
+            } catch (NumberFormatException ex) {
+                minPowerField.setForeground(Color.RED);
+                return;
             }
         }
 
-        devicesPanel.revalidate();
-        devicesPanel.repaint();
+        if (type == 0 && status == 0 && minPower <= 0) {
+            sorter.setRowFilter(null);
+        } else {
+            DeviceFleet fleet = tableModel.getFleet();
+            double threshold = minPower;
+            sorter.setRowFilter(new RowFilter<DeviceTableModel, Integer>() {
+                @Override
+                public boolean include(Entry<? extends DeviceTableModel, ? extends Integer> entry) {
+                    int row = entry.getIdentifier(); // filter on the fleet columns, without boxing cell values
+                    return (type == 0 || fleet.getType(row) == type)
+                            && (status == 0 || fleet.isOn(row) == (status == 1))
+                            && fleet.getPower(row) >= threshold;
+                }
+            });
+        }
+        updateSummary();
+    }
+
+    private void updateSummary() {
+        summaryLabel.setText("Showing " + deviceTable.getRowCount() + " of " + tableModel.getRowCount()
+                + " devices. Total load: " + String.format("%.0f", simulator.getTotalPower()) + " W");
     }
 
-    private void updateDeviceDetails(JPanel panel, EnergyConsumer device) {
-        for (Component comp : panel.getComponents()) {
-            if (comp instanceof JLabel label) {
-                if (label.getText().startsWith("Status:")) {
-                    label.setText("Status: " + (device.isStatus() ? "ON" : "OFF"));
-                } else if (device instanceof SmartLight light && label.getText().startsWith("Brightness:")) {
-                    label.setText("Brightness: " + light.getBrightness() + "%");
-                } else if (device instanceof SmartHVAC hvac) {
-                    if (label.getText().startsWith("Target Temp:")) {
-                        label.setText("Target Temp: " + hvac.getTargetTemperature() + "°C");
-                    } else if (label.getText().startsWith("Fan:")) {
-                        label.setText("Fan: " + hvac.getFanSpeed());
-                    }
+    // Right-aligned number renderer with a fixed format
+    private static class FormatRenderer extends DefaultTableCellRenderer {
+        private static final long serialVersionUID = 1L;
+        private final String format;
+
+        FormatRenderer(String format) {
+            this.format = format;
+            setHorizontalAlignment(SwingConstants.RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value == null ? "" : String.format(format, value));
+        }
+    }
+
+    // Integer editor that refuses values outside [min, max] and tells the user why
+    private class RangeEditor extends DefaultCellEditor {
+        private static final long serialVersionUID = 1L;
+        private final int min;
+        private final int max;
+        private final String message;
+        private Integer value;
+
+        RangeEditor(int min, int max, String message) {
+            super(new JTextField());
+            this.min = min;
+            this.max = max;
+            this.message = message;
+            ((JTextField) getComponent()).setHorizontalAlignment(JTextField.RIGHT);
+        }
+
+        @Override
+        public boolean stopCellEditing() {
+            String text = ((JTextField) getComponent()).getText().trim();
+            try {
+                int parsed = Integer.parseInt(text);
+                if (parsed < min || parsed > max) {
+                    JOptionPane.showMessageDialog(SmartHomeGUI.this, message);
+                    return false;
                 }
+                value = parsed;
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(SmartHomeGUI.this, "Invalid input. Please enter a number.");
+                return false;
             }
+            return super.stopCellEditing();
+        }
+
+        @Override
+        public Object getCellEditorValue() {
+            return value;
         }
-        panel.revalidate();
-        panel.repaint();
     }
 }
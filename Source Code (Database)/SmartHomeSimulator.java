@@ -3,36 +3,49 @@ import java.util.List;
 
 // Class to simulate the smart home environment
 public class SmartHomeSimulator {
-    private List<EnergyConsumer> devices; // List to hold all energy-consuming devices
+    private DeviceFleet fleet; // Columnar store holding all energy-consuming devices
     private List<RenewableEnergySource> renewableSources; // List to hold all renewable energy sources
+    private List<BatteryStorage> batteries; // Home batteries that capture surplus renewable energy
     private double electricityPricePerKWh; // in dollars
+    private List<SimulationListener> listeners; // Opt-in consumers of simulation results
+    private EnvironmentModel environmentModel; // Updates weather inputs during time-series runs (may be null)
+    private Tariff tariff; // Prices time-series runs when set; otherwise the flat price is used
 
     // Constructor for the SmartHomeSimulator
     public SmartHomeSimulator(double electricityPricePerKWh) {
-        this.devices = new ArrayList<>();
+        this(electricityPricePerKWh, null);
+    }
+
+    // Constructor for a simulator holding the given devices (e.g. loaded from a DeviceStore) instead of the
+    // default ones; null means the default devices. The default renewable sources are added either way.
+    public SmartHomeSimulator(double electricityPricePerKWh, List<EnergyConsumer> devices) {
+        this.fleet = new DeviceFleet(devices != null ? devices.size() : 16);
         this.renewableSources = new ArrayList<>();
+        this.batteries = new ArrayList<>();
+        this.listeners = new ArrayList<>();
         this.electricityPricePerKWh = electricityPricePerKWh;
-        initializeDevicesAndSources(); // Initialize devices and sources here
+        if (devices != null) {
+            for (EnergyConsumer device : devices) {
+                addDevice(device);
+            }
+        } else {
+            initializeDevices();
+        }
+        initializeSources();
     }
 
-    private void initializeDevicesAndSources() {
+    private void initializeDevices() {
         // Create smart home devices
         SmartLight livingRoomLight = new SmartLight("Living Room Light", 15, true); // 15W LED with occupancy sensor
         SmartLight bedroomLight = new SmartLight("Bedroom Light", 10, false); // 10W LED
         SmartHVAC hvac = new SmartHVAC("HVAC System", 1000); // 1000W
         SmartRefrigerator fridge = new SmartRefrigerator("Refrigerator", 150); // 150W
 
-        // Create renewable energy sources
-        SolarPanel solarPanel = new SolarPanel(10, 0.2); // 10 m^2, 20% efficiency
-        WindTurbine windTurbine = new WindTurbine(5, 0.3);  // 5m blade diameter, 30% efficiency
-
-        // Add devices and sources to the simulator
+        // Add devices to the simulator
         addDevice(livingRoomLight);
         addDevice(bedroomLight);
         addDevice(hvac);
         addDevice(fridge);
-        addRenewableSource(solarPanel);
-        addRenewableSource(windTurbine);
 
         // Optional: Turn on initial devices here or via GUI
         // livingRoomLight.turnOn();
@@ -41,9 +54,19 @@ public class SmartHomeSimulator {
         // fridge.turnOn();
     }
 
+    private void initializeSources() {
+        // Create renewable energy sources
+        SolarPanel solarPanel = new SolarPanel(10, 0.2); // 10 m^2, 20% efficiency
+        WindTurbine windTurbine = new WindTurbine(5, 0.3);  // 5m blade diameter, 30% efficiency
+
+        // Add sources to the simulator
+        addRenewableSource(solarPanel);
+        addRenewableSource(windTurbine);
+    }
+
     // Method to add an energy-consuming device to the simulator
     public void addDevice(EnergyConsumer device) {
-        this.devices.add(device);
+        this.fleet.add(device);
     }
 
     // Method to add a renewable energy source to the simulator
@@ -51,27 +74,52 @@ public class SmartHomeSimulator {
         this.renewableSources.add(source);
     }
 
-    // Method to simulate the energy consumption and generation over a given duration (in hours)
-    public void simulate(double duration) {
-        double totalEnergyConsumption = 0.0;
-        double totalRenewableEnergy = 0.0;
+    // Method to add a home battery to the simulator
+    public void addBattery(BatteryStorage battery) {
+        this.batteries.add(battery);
+    }
+
+    // Getter for the list of home batteries
+    public List<BatteryStorage> getBatteries() {
+        return this.batteries;
+    }
+
+    // Method to register an opt-in consumer of simulation results (e.g. ConsoleSimulationReporter)
+    public void addSimulationListener(SimulationListener listener) {
+        this.listeners.add(listener);
+    }
+
+    // Method to unregister a simulation result consumer
+    public void removeSimulationListener(SimulationListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    // Method to simulate the energy consumption and generation over a given duration (in hours).
+    // Per-device energy is only recorded when a registered listener asks for it.
+    public SimulationResult simulate(double duration) {
+        return simulate(duration, needsDeviceEnergy());
+    }
 
-        // Simulate each device
-        for (EnergyConsumer device : devices) {
-            double deviceEnergy = device.getEnergyConsumption(duration);
-            totalEnergyConsumption += deviceEnergy;
-            System.out.println(device.getName() + " consumed " + String.format("%.3f", deviceEnergy) + " kWh.");
-            device.displayStatus();
+    // Method to simulate a step without printing; per-device energy is only recorded when requested
+    public SimulationResult simulate(double duration, boolean recordDeviceEnergy) {
+        // Current load comes from the running totals the fleet keeps up to date on every state change
+        double totalEnergyConsumption = energyOver(duration);
+
+        double[] deviceEnergy = SimulationResult.NO_DEVICE_ENERGY;
+        if (recordDeviceEnergy) {
+            deviceEnergy = new double[fleet.size()];
+            fleet.fillEnergyConsumption(duration, deviceEnergy);
         }
 
         // Simulate renewable energy sources
-        for (RenewableEnergySource source : renewableSources) {
-            double energy = source.generateEnergy(); // Watts
+        double totalRenewableEnergy = 0.0;
+        for (int i = 0; i < renewableSources.size(); i++) {
+            double energy = renewableSources.get(i).generateEnergy(); // Watts
             totalRenewableEnergy += energy * duration / 1000.0; // Convert Watts over duration to kWh
         }
 
-        // Calculate net energy consumption (consumption - generation)
-        double netEnergyConsumption = totalEnergyConsumption - totalRenewableEnergy;
+        // Calculate net energy consumption (consumption - generation), after the batteries
+        double netEnergyConsumption = dispatchBatteries(totalEnergyConsumption - totalRenewableEnergy, duration);
         if (netEnergyConsumption < 0) {
             netEnergyConsumption = 0;
         }
@@ -79,18 +127,163 @@ public class SmartHomeSimulator {
         // Calculate the total cost of electricity
         double cost = netEnergyConsumption * electricityPricePerKWh;
 
-        // Print the simulation results
-        System.out.println("\n--- Simulation Results ---");
-        System.out.println("Total Energy Consumption: " + String.format("%.3f", totalEnergyConsumption) + " kWh");
-        System.out.println("Total Renewable Energy Generated: " + String.format("%.3f", totalRenewableEnergy) + " kWh");
-        System.out.println("Net Energy Consumption: " + String.format("%.3f", netEnergyConsumption) + " kWh");
-        System.out.println("Total Cost: $" + String.format("%.2f", cost)); // Format cost to 2 decimal places
-        System.out.println("--- End Simulation ---");
+        SimulationResult result = new SimulationResult(duration, totalEnergyConsumption, totalRenewableEnergy,
+                netEnergyConsumption, cost, deviceEnergy);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onSimulationResult(result);
+        }
+        return result;
+    }
+
+    // Whether any registered listener reads per-device energy
+    private boolean needsDeviceEnergy() {
+        for (int i = 0; i < listeners.size(); i++) {
+            if (listeners.get(i).needsDeviceEnergy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Method to simulate the horizon [startHour, endHour) in fixed steps (in hours), without printing.
+    // The environment model (if any) is applied before every step; the last step is shortened to end exactly at endHour.
+    // With a tariff set, per-step cost uses its compiled price table (including tiers and export credit).
+    // Listeners that receive time-series steps get each step's SimulationResult as soon as the step is priced.
+    public TimeSeriesResult simulate(double startHour, double endHour, double stepHours) {
+        if (!(stepHours > 0) || endHour < startHour) {
+            throw new IllegalArgumentException("Invalid horizon: start=" + startHour + ", end=" + endHour + ", step=" + stepHours);
+        }
+        long stepCount = (long) Math.ceil((endHour - startHour) / stepHours - 1e-9);
+        if (stepCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many steps: " + stepCount);
+        }
+        int steps = (int) stepCount;
+        double[] consumption = new double[steps];
+        double[] generation = new double[steps];
+        double[] netConsumption = new double[steps];
+        double[] gridFlow = new double[steps];
+        double[] cost = new double[steps];
+
+        // Tiers depend on consumption so far in the billing period, which the meter tracks step by step
+        PriceTable prices = tariff != null ? tariff.compile(startHour, stepHours, steps) : null;
+        Tariff.Meter meter = prices != null ? prices.meter() : null;
+
+        List<SimulationListener> stepListeners = new ArrayList<>();
+        boolean recordDeviceEnergy = false;
+        for (int i = 0; i < listeners.size(); i++) {
+            SimulationListener listener = listeners.get(i);
+            if (listener.receivesTimeSeriesSteps()) {
+                stepListeners.add(listener);
+                recordDeviceEnergy |= listener.needsDeviceEnergy();
+            }
+        }
+
+        for (int step = 0; step < steps; step++) {
+            double time = startHour + step * stepHours;
+            double duration = Math.min(stepHours, endHour - time);
+            if (environmentModel != null) {
+                environmentModel.apply(time);
+            }
+
+            double used = energyOver(duration);
+            double generated = 0.0;
+            for (int i = 0; i < renewableSources.size(); i++) {
+                generated += renewableSources.get(i).generateEnergy() * duration / 1000.0;
+            }
+            double flow = dispatchBatteries(used - generated, duration);
+            double net = Math.max(0, flow);
+
+            consumption[step] = used;
+            generation[step] = generated;
+            netConsumption[step] = net;
+            gridFlow[step] = flow;
+            cost[step] = meter != null ? meter.cost(time, prices.getPrice(step), flow) : net * electricityPricePerKWh;
+
+            if (!stepListeners.isEmpty()) {
+                double[] deviceEnergy = SimulationResult.NO_DEVICE_ENERGY;
+                if (recordDeviceEnergy) {
+                    deviceEnergy = new double[fleet.size()];
+                    fleet.fillEnergyConsumption(duration, deviceEnergy);
+                }
+                SimulationResult result = new SimulationResult(duration, used, generated, net, cost[step], deviceEnergy);
+                for (int i = 0; i < stepListeners.size(); i++) {
+                    stepListeners.get(i).onSimulationResult(result);
+                }
+            }
+        }
+        return new TimeSeriesResult(startHour, stepHours, consumption, generation, netConsumption, gridFlow, cost);
+    }
+
+    // Current power draw of all devices that are on (in Watts)
+    public double getTotalPower() {
+        return fleet.getLoadAggregator().getTotalLoad();
+    }
+
+    // Energy used by all devices over the duration (in hours) at the current load, in kWh
+    private double energyOver(double duration) {
+        return (getTotalPower() * duration) / 1000.0;
+    }
+
+    // Running load totals per home, device type and room, kept up to date on every state change
+    public LoadAggregator getLoadAggregator() {
+        return fleet.getLoadAggregator();
+    }
+
+    // Current output of all renewable energy sources (in Watts)
+    public double getRenewablePower() {
+        double total = 0.0;
+        for (int i = 0; i < renewableSources.size(); i++) {
+            total += renewableSources.get(i).generateEnergy();
+        }
+        return total;
+    }
+
+    // Lets each battery charge from surplus or cover deficit; returns the remaining grid exchange in kWh
+    double dispatchBatteries(double netKWh, double duration) {
+        for (int i = 0; i < batteries.size(); i++) {
+            netKWh = batteries.get(i).dispatch(netKWh, duration);
+        }
+        return netKWh;
+    }
+
+    // Setter for the tariff used to price time-series runs (null = flat electricityPricePerKWh)
+    public void setTariff(Tariff tariff) {
+        this.tariff = tariff;
+    }
+
+    // Getter for the tariff (null when the flat price is used)
+    public Tariff getTariff() {
+        return tariff;
+    }
+
+    // Setter for the model that updates weather inputs during time-series runs
+    public void setEnvironmentModel(EnvironmentModel environmentModel) {
+        this.environmentModel = environmentModel;
     }
 
-    // Getter for the list of devices
+    // Getter for the list of renewable energy sources
+    public List<RenewableEnergySource> getRenewableSources() {
+        return this.renewableSources;
+    }
+
+    // Getter for the electricity price
+    public double getElectricityPricePerKWh() {
+        return electricityPricePerKWh;
+    }
+
+    // Setter for the flat electricity price (in dollars per kWh)
+    public void setElectricityPricePerKWh(double electricityPricePerKWh) {
+        this.electricityPricePerKWh = electricityPricePerKWh;
+    }
+
+    // Getter for the list of devices (a live view over the fleet columns)
     public List<EnergyConsumer> getDevices() {
-        return this.devices;
+        return this.fleet.asList();
+    }
+
+    // Getter for the columnar device store, for bulk loading and fast aggregate queries
+    public DeviceFleet getFleet() {
+        return this.fleet;
     }
 
     // Main method (for potential text-based testing or setup)
@@ -14,7 +14,17 @@ public class SmartLight extends EnergyConsumer {
 
     public void dim(int brightness) {
         this.brightness = brightness;
-        System.out.println(getName() + " brightness set to " + brightness + "%.");
+        publishState();
+        DeviceEventLog log = DeviceEventLog.getDefault();
+        if (log.isEnabled(DeviceEventLog.Level.INFO)) {
+            log.info(getName(), "brightness set to " + brightness + "%.");
+        }
+    }
+
+    // Restores brightness without printing, used when rebuilding devices from stored state
+    void applyBrightness(int brightness) {
+        this.brightness = brightness;
+        publishState();
     }
 
     public boolean hasOccupancySensor() {
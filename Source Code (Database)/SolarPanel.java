@@ -3,12 +3,14 @@ public class SolarPanel implements RenewableEnergySource {
     private double surfaceArea;        // in square meters
     private double efficiency;         // as decimal (e.g., 0.2 for 20%)
     private double sunlightIntensity;  // in Watts per square meter
+    private final double powerCoefficient; // surfaceArea * efficiency, precomputed once
 
     // Constructor to initialize surface area and efficiency
     public SolarPanel(double surfaceArea, double efficiency) {
         this.surfaceArea = surfaceArea;
         this.efficiency = efficiency;
         this.sunlightIntensity = 0.0; // default: no sunlight initially
+        this.powerCoefficient = surfaceArea * efficiency;
     }
 
     // Setter for sunlight intensity (W/m^2)
@@ -19,7 +21,17 @@ public class SolarPanel implements RenewableEnergySource {
     // Calculate energy generated in Watts: Area * Intensity * Efficiency
     @Override
     public double generateEnergy() {
-        return surfaceArea * sunlightIntensity * efficiency;
+        return powerCoefficient * sunlightIntensity;
+    }
+
+    // Watts produced per W/m^2 of sunlight (surface area * efficiency)
+    public double getPowerCoefficient() {
+        return powerCoefficient;
+    }
+
+    // Getter for efficiency
+    public double getEfficiency() {
+        return efficiency;
     }
 
     // Getter for surface area
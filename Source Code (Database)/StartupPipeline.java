@@ -0,0 +1,147 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+// Builds everything the controller needs in background tasks, so a login frame (or the first GUI frame)
+// can be shown immediately. The device store is opened while the fleet snapshot is read; only when
+// there is no usable snapshot are the devices loaded from the store. Each object is built exactly once.
+public class StartupPipeline {
+    private static final Path SNAPSHOT = Paths.get("smarthome.snapshot");
+    private static final String[] DATABASE_FILES = {"smarthome.db", "smarthome.db-wal"};
+
+    private final double electricityPricePerKWh;
+    private final ExecutorService executor;
+    private final CompletableFuture<DeviceStore> store;
+    private final CompletableFuture<SmartHomeSimulator> simulator;
+
+    private StartupPipeline(double electricityPricePerKWh) {
+        this.electricityPricePerKWh = electricityPricePerKWh;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task, "startup-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // 1. Open the store and map the snapshot side by side. The database files are stamped first:
+        // opening the store touches them, which would otherwise make every snapshot look stale.
+        long databaseModified = lastModified(DATABASE_FILES);
+        store = CompletableFuture.supplyAsync(DeviceDatabase::new, executor);
+        CompletableFuture<SmartHomeSimulator> snapshot = CompletableFuture.supplyAsync(() -> loadSnapshot(databaseModified), executor);
+
+        // 2. Fall back to the store only when there is no fresh snapshot, then 3. warm up the simulator
+        simulator = snapshot
+                .thenCompose(loaded -> loaded != null
+                        ? CompletableFuture.completedFuture(loaded)
+                        : store.thenApplyAsync(this::loadFromStore, executor))
+                .thenApplyAsync(StartupPipeline::warmUp, executor);
+
+        // Write a fresh snapshot on exit, after the GUI has flushed its device changes
+        simulator.thenAccept(ready -> Runtime.getRuntime().addShutdownHook(
+                new Thread(() -> saveSnapshot(ready), "snapshot-writer")));
+        CompletableFuture.allOf(store, simulator).whenComplete((done, error) -> executor.shutdown());
+    }
+
+    // Starts the background tasks; the price applies whether devices come from the snapshot or the store
+    public static StartupPipeline start(double electricityPricePerKWh) {
+        return new StartupPipeline(electricityPricePerKWh);
+    }
+
+    public CompletableFuture<DeviceStore> getStore() {
+        return store;
+    }
+
+    public CompletableFuture<SmartHomeSimulator> getSimulator() {
+        return simulator;
+    }
+
+    // Whether the store and the simulator are both ready (successfully or not)
+    public boolean isDone() {
+        return store.isDone() && simulator.isDone();
+    }
+
+    // Runs the action once both the simulator and the store are ready; errors are printed and passed on
+    public CompletableFuture<Void> whenReady(BiConsumer<SmartHomeSimulator, DeviceStore> action) {
+        return simulator.thenCombine(store, (readySimulator, readyStore) -> {
+            action.accept(readySimulator, readyStore);
+            return (Void) null;
+        }).whenComplete((done, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+            }
+        });
+    }
+
+    private SmartHomeSimulator loadFromStore(DeviceStore deviceStore) {
+        // Load devices from the store or create default ones if none found
+        List<EnergyConsumer> devices = deviceStore.load();
+
+        if (devices.isEmpty()) {
+            System.out.println("No devices found in database. Creating default devices...");
+            SmartHomeSimulator defaults = new SmartHomeSimulator(electricityPricePerKWh);
+
+            // Save default devices to the store
+            for (EnergyConsumer device : defaults.getDevices()) {
+                deviceStore.save(device);
+            }
+            return defaults;
+        }
+        System.out.println("Loaded " + devices.size() + " devices from database.");
+        return new SmartHomeSimulator(electricityPricePerKWh, devices);
+    }
+
+    // Returns the simulator stored in the snapshot, or null if there is none or the database changed since.
+    // The caller's price replaces the one stored with the snapshot, which may come from another entry point.
+    private SmartHomeSimulator loadSnapshot(long databaseModified) {
+        File file = SNAPSHOT.toFile();
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            if (FleetSnapshot.createdAt(SNAPSHOT) < databaseModified) {
+                System.out.println("Snapshot is older than the database; loading devices from database.");
+                return null;
+            }
+            SmartHomeSimulator loaded = FleetSnapshot.read(SNAPSHOT);
+            loaded.setElectricityPricePerKWh(electricityPricePerKWh);
+            System.out.println("Loaded " + loaded.getFleet().size() + " devices from snapshot.");
+            return loaded;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Latest modification time of the given files (0 if none exist)
+    private static long lastModified(String... paths) {
+        long latest = 0L;
+        for (String path : paths) {
+            latest = Math.max(latest, new File(path).lastModified());
+        }
+        return latest;
+    }
+
+    // Runs the read-only hot paths once, so the first GUI refresh does not pay for class loading and JIT
+    private static SmartHomeSimulator warmUp(SmartHomeSimulator ready) {
+        ready.getTotalPower();
+        ready.getRenewablePower();
+        ready.getLoadAggregator();
+        ready.getFleet().totalEnergyConsumption(1.0);
+        return ready;
+    }
+
+    private static void saveSnapshot(SmartHomeSimulator ready) {
+        try {
+            FleetSnapshot.write(ready, SNAPSHOT);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Electricity tariff definition: a base price, time-of-use windows, tiered blocks and an export credit.
+// A tariff is compiled once into a PriceTable for a given horizon and step, after which costs are
+// computed from primitive arrays without re-evaluating the rules at every step.
+public class Tariff {
+    private final double basePrice; // dollars per kWh outside any time-of-use window
+    private final List<double[]> timeOfUse = new ArrayList<>(); // {fromHourOfDay, toHourOfDay, price}
+    private final List<double[]> tiers = new ArrayList<>(); // {thresholdKWh, priceAdder}, ascending thresholds
+    private double billingPeriodHours = 24 * 30; // tier consumption resets every billing period
+    private double exportCredit; // dollars per kWh exported to the grid
+
+    // Constructor for a tariff with a flat base price
+    public Tariff(double basePrice) {
+        this.basePrice = basePrice;
+    }
+
+    // Adds a daily time-of-use window [fromHour, toHour) with its own price; windows may wrap past midnight.
+    // Later windows take precedence where windows overlap.
+    public Tariff addTimeOfUse(double fromHour, double toHour, double price) {
+        if (fromHour < 0 || fromHour > 24 || toHour < 0 || toHour > 24) {
+            throw new IllegalArgumentException("Time-of-use hours must be within 0-24");
+        }
+        timeOfUse.add(new double[] {fromHour, toHour, price});
+        return this;
+    }
+
+    // Adds a tier: consumption above thresholdKWh within a billing period costs priceAdder more per kWh
+    public Tariff addTier(double thresholdKWh, double priceAdder) {
+        if (!tiers.isEmpty() && thresholdKWh <= tiers.get(tiers.size() - 1)[0]) {
+            throw new IllegalArgumentException("Tier thresholds must be ascending");
+        }
+        tiers.add(new double[] {thresholdKWh, priceAdder});
+        return this;
+    }
+
+    // Sets the billing period after which tier consumption resets (in hours)
+    public Tariff setBillingPeriodHours(double billingPeriodHours) {
+        if (!(billingPeriodHours > 0)) {
+            throw new IllegalArgumentException("Billing period must be positive");
+        }
+        this.billingPeriodHours = billingPeriodHours;
+        return this;
+    }
+
+    // Sets the credit paid per kWh exported to the grid
+    public Tariff setExportCredit(double exportCredit) {
+        this.exportCredit = exportCredit;
+        return this;
+    }
+
+    // Time-of-use price at a time (in hours)
+    public double priceAt(double timeHours) {
+        double hourOfDay = ((timeHours % 24) + 24) % 24;
+        double price = basePrice;
+        for (double[] window : timeOfUse) {
+            boolean inside = window[0] <= window[1]
+                    ? hourOfDay >= window[0] && hourOfDay < window[1]
+                    : hourOfDay >= window[0] || hourOfDay < window[1];
+            if (inside) {
+                price = window[2];
+            }
+        }
+        return price;
+    }
+
+    // First time after timeHours at which the time-of-use price or the billing period can change
+    // (infinity when neither ever changes)
+    public double nextPriceChange(double timeHours) {
+        double next = Double.POSITIVE_INFINITY;
+        double hourOfDay = ((timeHours % 24) + 24) % 24;
+        for (double[] window : timeOfUse) {
+            for (int edge = 0; edge < 2; edge++) {
+                double ahead = window[edge] - hourOfDay;
+                if (ahead <= 1e-9) {
+                    ahead += 24;
+                }
+                next = Math.min(next, timeHours + ahead);
+            }
+        }
+        if (!tiers.isEmpty()) {
+            next = Math.min(next, (Math.floor(timeHours / billingPeriodHours + 1e-9) + 1) * billingPeriodHours);
+        }
+        return next;
+    }
+
+    // Compiles the tariff into a per-step price table for `steps` steps starting at startHour
+    public PriceTable compile(double startHour, double stepHours, int steps) {
+        if (!(stepHours > 0) || steps < 0) {
+            throw new IllegalArgumentException("Invalid step: " + stepHours + " x " + steps);
+        }
+        double[] importPrice = new double[steps];
+        // Days repeat, so evaluate one day of steps and copy it whenever a day is a whole number of steps
+        double stepsPerDay = 24 / stepHours;
+        int period = stepsPerDay == Math.rint(stepsPerDay) ? (int) stepsPerDay : steps;
+        for (int step = 0; step < Math.min(period, steps); step++) {
+            importPrice[step] = priceAt(startHour + step * stepHours);
+        }
+        for (int step = period; step < steps; step++) {
+            importPrice[step] = importPrice[step - period];
+        }
+
+        double[] thresholds = new double[tiers.size()];
+        double[] adders = new double[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            thresholds[i] = tiers.get(i)[0];
+            adders[i] = tiers.get(i)[1];
+        }
+        return new PriceTable(startHour, stepHours, importPrice, thresholds, adders, billingPeriodHours, exportCredit);
+    }
+
+    // Meter for pricing grid exchange one interval at a time under the current rules
+    public Meter meter() {
+        double[] thresholds = new double[tiers.size()];
+        double[] adders = new double[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            thresholds[i] = tiers.get(i)[0];
+            adders[i] = tiers.get(i)[1];
+        }
+        return new Meter(thresholds, adders, billingPeriodHours, exportCredit);
+    }
+
+    // Prices grid exchange interval by interval, tracking tier consumption within the current billing period.
+    // Billing periods are aligned to absolute time (period n covers [n * billingPeriodHours, (n + 1) * billingPeriodHours)),
+    // so a run starting mid-period resets its tiers at the same hour as a run starting earlier.
+    // Intervals must be priced in time order.
+    public static final class Meter {
+        private final double[] tierThresholds; // kWh per billing period, ascending
+        private final double[] tierAdders; // extra dollars per kWh above each threshold
+        private final double billingPeriodHours;
+        private final double exportCredit; // dollars per kWh exported
+        private long period = Long.MIN_VALUE; // billing period of the last priced interval
+        private double used; // kWh imported so far in that period
+
+        Meter(double[] tierThresholds, double[] tierAdders, double billingPeriodHours, double exportCredit) {
+            this.tierThresholds = tierThresholds;
+            this.tierAdders = tierAdders;
+            this.billingPeriodHours = billingPeriodHours;
+            this.exportCredit = exportCredit;
+        }
+
+        // Cost of exchanging gridFlowKWh (positive = import, negative = export) at timeHours, where the
+        // time-of-use import price is `price`; negative when export credit exceeds import cost
+        public double cost(double timeHours, double price, double gridFlowKWh) {
+            double imported = Math.max(gridFlowKWh, 0.0);
+            double exported = Math.max(-gridFlowKWh, 0.0);
+            double cost = imported * price - exported * exportCredit;
+            if (tierThresholds.length == 0 || imported == 0) {
+                return cost;
+            }
+            // The epsilon keeps a step that starts exactly on a boundary from landing in the previous period
+            long current = (long) Math.floor(timeHours / billingPeriodHours + 1e-9);
+            if (current != period) {
+                period = current;
+                used = 0.0;
+            }
+            cost += tierCharge(used, used + imported);
+            used += imported;
+            return cost;
+        }
+
+        // Extra charge for consumption going from `from` to `to` kWh within a billing period
+        private double tierCharge(double from, double to) {
+            double charge = 0.0;
+            for (int i = 0; i < tierThresholds.length; i++) {
+                double above = to - Math.max(from, tierThresholds[i]);
+                if (above > 0) {
+                    charge += above * tierAdders[i];
+                }
+            }
+            return charge;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.Arrays;
+
+// Buffer of telemetry rows waiting to be written, kept in parallel primitive columns
+public final class TelemetryBatch {
+    private String[] devices;
+    private String[] types;
+    private long[] timestamps; // epoch seconds (UTC)
+    private double[] energy; // kWh consumed
+    private double[] generation; // kWh generated
+    private double[] cost; // dollars
+    private int size;
+
+    // Constructor for an empty batch with room for the given number of rows
+    public TelemetryBatch(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        devices = new String[capacity];
+        types = new String[capacity];
+        timestamps = new long[capacity];
+        energy = new double[capacity];
+        generation = new double[capacity];
+        cost = new double[capacity];
+    }
+
+    // Appends one row
+    public void add(String device, String type, long timestamp, double energyKWh, double generationKWh, double costDollars) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        devices[size] = device;
+        types[size] = type;
+        timestamps[size] = timestamp;
+        energy[size] = energyKWh;
+        generation[size] = generationKWh;
+        cost[size] = costDollars;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Empties the batch, keeping its arrays for reuse
+    public void clear() {
+        Arrays.fill(devices, 0, size, null);
+        Arrays.fill(types, 0, size, null);
+        size = 0;
+    }
+
+    public String getDevice(int row) {
+        return devices[row];
+    }
+
+    public String getType(int row) {
+        return types[row];
+    }
+
+    public long getTimestamp(int row) {
+        return timestamps[row];
+    }
+
+    public double getEnergy(int row) {
+        return energy[row];
+    }
+
+    public double getGeneration(int row) {
+        return generation[row];
+    }
+
+    public double getCost(int row) {
+        return cost[row];
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        devices = Arrays.copyOf(devices, capacity);
+        types = Arrays.copyOf(types, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        cost = Arrays.copyOf(cost, capacity);
+    }
+}
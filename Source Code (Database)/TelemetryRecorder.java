@@ -0,0 +1,89 @@
+// Persists per-step energy telemetry from SmartHomeSimulator.simulate() (single steps and time-series runs) to the database.
+// Rows are buffered and written in large transactions; the database updates the hourly and
+// daily rollup tables in the same transaction.
+public class TelemetryRecorder implements SimulationListener, AutoCloseable {
+    public static final String RENEWABLES = "Renewables"; // device name used for the generation row
+    private static final int DEFAULT_FLUSH_ROWS = 20_000;
+
+    private final DeviceDatabase db;
+    private final SmartHomeSimulator simulator;
+    private final int flushRows;
+    private final TelemetryBatch batch;
+    private double clockSeconds; // simulated time of the next step, in epoch seconds
+
+    // Constructor for a recorder whose first step starts at the given time (epoch seconds, UTC)
+    public TelemetryRecorder(DeviceDatabase db, SmartHomeSimulator simulator, long startEpochSecond) {
+        this(db, simulator, startEpochSecond, DEFAULT_FLUSH_ROWS);
+    }
+
+    // Constructor with a custom number of buffered rows per transaction
+    public TelemetryRecorder(DeviceDatabase db, SmartHomeSimulator simulator, long startEpochSecond, int flushRows) {
+        if (flushRows <= 0) {
+            throw new IllegalArgumentException("flushRows must be positive");
+        }
+        this.db = db;
+        this.simulator = simulator;
+        this.flushRows = flushRows;
+        this.batch = new TelemetryBatch(Math.min(flushRows, DEFAULT_FLUSH_ROWS) + 64);
+        this.clockSeconds = startEpochSecond;
+    }
+
+    @Override
+    public boolean needsDeviceEnergy() {
+        return true;
+    }
+
+    @Override
+    public boolean receivesTimeSeriesSteps() {
+        return true;
+    }
+
+    @Override
+    public void onSimulationResult(SimulationResult result) {
+        long timestamp = (long) clockSeconds;
+        clockSeconds += result.getDuration() * 3600.0;
+
+        // One row per device; the step cost is shared in proportion to each device's energy
+        // Names and types come from the fleet columns so bulk-loaded devices are never materialized
+        if (result.hasDeviceEnergy()) {
+            DeviceFleet fleet = simulator.getFleet();
+            double total = result.getTotalEnergyConsumption();
+            double costPerKWh = total > 0 ? result.getCost() / total : 0.0;
+            int count = Math.min(result.getDeviceCount(), fleet.size());
+            for (int i = 0; i < count; i++) {
+                double energy = result.getDeviceEnergy(i);
+                batch.add(fleet.getName(i), typeName(fleet, i), timestamp, energy, 0.0, energy * costPerKWh);
+            }
+        }
+        // One row for the home's renewable generation
+        batch.add(RENEWABLES, RENEWABLES, timestamp, 0.0, result.getTotalRenewableEnergy(), 0.0);
+
+        if (batch.size() >= flushRows) {
+            flush();
+        }
+    }
+
+    // Type name stored with a row, matching DeviceRecord.typeOf()
+    private static String typeName(DeviceFleet fleet, int slot) {
+        return switch (fleet.getType(slot)) {
+            case DeviceFleet.TYPE_LIGHT -> "SmartLight";
+            case DeviceFleet.TYPE_HVAC -> "SmartHVAC";
+            case DeviceFleet.TYPE_REFRIGERATOR -> "SmartRefrigerator";
+            default -> "Unknown";
+        };
+    }
+
+    // Writes all buffered rows in one transaction
+    public void flush() {
+        if (!batch.isEmpty()) {
+            db.saveTelemetry(batch);
+            batch.clear();
+        }
+    }
+
+    // Writes the remaining rows
+    @Override
+    public void close() {
+        flush();
+    }
+}
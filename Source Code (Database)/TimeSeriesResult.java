@@ -0,0 +1,105 @@
+// Per-step results of a time-series simulation, stored in primitive arrays
+public final class TimeSeriesResult {
+    private final double startHour;
+    private final double stepHours;
+    private final double[] consumption; // kWh consumed per step
+    private final double[] generation; // kWh generated per step
+    private final double[] netConsumption; // kWh drawn from the grid per step, never negative
+    private final double[] gridFlow; // kWh exchanged with the grid per step after batteries (positive = import, negative = export)
+    private final double[] cost; // dollars per step
+
+    // Constructor for the TimeSeriesResult (takes ownership of the arrays)
+    TimeSeriesResult(double startHour, double stepHours, double[] consumption, double[] generation,
+                     double[] netConsumption, double[] gridFlow, double[] cost) {
+        this.startHour = startHour;
+        this.stepHours = stepHours;
+        this.consumption = consumption;
+        this.generation = generation;
+        this.netConsumption = netConsumption;
+        this.gridFlow = gridFlow;
+        this.cost = cost;
+    }
+
+    public int getStepCount() {
+        return consumption.length;
+    }
+
+    public double getStartHour() {
+        return startHour;
+    }
+
+    public double getStepHours() {
+        return stepHours;
+    }
+
+    // Start time of the given step (in hours)
+    public double getTime(int step) {
+        return startHour + step * stepHours;
+    }
+
+    public double getConsumption(int step) {
+        return consumption[step];
+    }
+
+    public double getGeneration(int step) {
+        return generation[step];
+    }
+
+    public double getNetConsumption(int step) {
+        return netConsumption[step];
+    }
+
+    public double getGridFlow(int step) {
+        return gridFlow[step];
+    }
+
+    public double getCost(int step) {
+        return cost[step];
+    }
+
+    // Copies of the per-step arrays
+    public double[] getConsumptionSeries() {
+        return consumption.clone();
+    }
+
+    public double[] getGenerationSeries() {
+        return generation.clone();
+    }
+
+    public double[] getNetConsumptionSeries() {
+        return netConsumption.clone();
+    }
+
+    public double[] getGridFlowSeries() {
+        return gridFlow.clone();
+    }
+
+    public double[] getCostSeries() {
+        return cost.clone();
+    }
+
+    // Totals over the whole horizon
+    public double getTotalConsumption() {
+        return sum(consumption);
+    }
+
+    public double getTotalGeneration() {
+        return sum(generation);
+    }
+
+    public double getTotalNetConsumption() {
+        return sum(netConsumption);
+    }
+
+    public double getTotalCost() {
+        return sum(cost);
+    }
+
+    private static double sum(double[] values) {
+        double total = 0.0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
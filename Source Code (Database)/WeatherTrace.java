@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only view of a binary, columnar weather trace file (see WeatherTraceConverter).
+// Each site has one float column of sunlight (W/m^2) and one of wind speed (m/s), one value per step.
+// Columns are memory-mapped on first use, so multi-year traces for many sites are paged in lazily
+// by the OS and never copied onto the Java heap.
+//
+// File layout (little endian):
+//   0  int   magic "WTRC"          16 long  start time (epoch seconds)
+//   4  int   format version        24 int   step length (seconds)
+//   8  int   site count            28 int   reserved
+//   12 int   step count            32 long  data offset
+//   40 site names: (short length, UTF-8 bytes) per site
+//   data offset: for each site, sunlight[stepCount] then windSpeed[stepCount] as 32-bit floats
+public class WeatherTrace implements AutoCloseable {
+    static final int MAGIC = 0x43525457; // "WTRC" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+
+    private final FileChannel channel;
+    private final int siteCount;
+    private final int stepCount;
+    private final long startEpochSecond;
+    private final int stepSeconds;
+    private final long dataOffset;
+    private final String[] siteNames;
+    private final FloatBuffer[] columns; // mapped lazily, index = site * 2 + (0 sunlight, 1 wind)
+
+    private WeatherTrace(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a weather trace file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported weather trace version: " + version);
+        }
+        siteCount = header.getInt();
+        stepCount = header.getInt();
+        startEpochSecond = header.getLong();
+        stepSeconds = header.getInt();
+        header.getInt(); // reserved
+        dataOffset = header.getLong();
+        if (siteCount < 0 || stepCount < 0 || stepSeconds <= 0
+                || dataOffset + 8L * siteCount * stepCount > channel.size()) {
+            throw new IOException("Corrupt weather trace header");
+        }
+
+        ByteBuffer names = ByteBuffer.allocate((int) (dataOffset - HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(names, HEADER_SIZE);
+        names.flip();
+        siteNames = new String[siteCount];
+        for (int i = 0; i < siteCount; i++) {
+            byte[] bytes = new byte[names.getShort() & 0xFFFF];
+            names.get(bytes);
+            siteNames[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        columns = new FloatBuffer[siteCount * 2];
+    }
+
+    // Opens a trace file for reading
+    public static WeatherTrace open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new WeatherTrace(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getSiteCount() {
+        return siteCount;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public long getStartEpochSecond() {
+        return startEpochSecond;
+    }
+
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public String getSiteName(int site) {
+        return siteNames[site];
+    }
+
+    // Index of the site with the given name, or -1
+    public int indexOfSite(String name) {
+        for (int i = 0; i < siteCount; i++) {
+            if (siteNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Sunlight intensity (W/m^2) at a site and step
+    public float getSunlight(int site, int step) {
+        return column(site, 0).get(step);
+    }
+
+    // Wind speed (m/s) at a site and step
+    public float getWindSpeed(int site, int step) {
+        return column(site, 1).get(step);
+    }
+
+    // Copies count sunlight samples starting at fromStep into out[0..count)
+    public void readSunlight(int site, int fromStep, double[] out, int count) {
+        copy(column(site, 0), fromStep, out, count);
+    }
+
+    // Copies count wind speed samples starting at fromStep into out[0..count)
+    public void readWindSpeed(int site, int fromStep, double[] out, int count) {
+        copy(column(site, 1), fromStep, out, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Maps one column on first use; the mapping stays valid after the channel is closed
+    private FloatBuffer column(int site, int kind) {
+        if (site < 0 || site >= siteCount) {
+            throw new IndexOutOfBoundsException("Site " + site + " out of range (sites " + siteCount + ")");
+        }
+        int index = site * 2 + kind;
+        FloatBuffer column = columns[index];
+        if (column == null) {
+            synchronized (columns) {
+                column = columns[index];
+                if (column == null) {
+                    long offset = dataOffset + (long) index * stepCount * Float.BYTES;
+                    try {
+                        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) stepCount * Float.BYTES);
+                        column = mapped.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not map weather trace column " + index, e);
+                    }
+                    columns[index] = column;
+                }
+            }
+        }
+        return column;
+    }
+
+    private static void copy(FloatBuffer column, int fromStep, double[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = column.get(fromStep + i);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of weather trace file");
+            }
+            position += read;
+        }
+    }
+}
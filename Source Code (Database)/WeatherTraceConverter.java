@@ -0,0 +1,174 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Converts a CSV weather trace into the binary WeatherTrace format.
+// CSV columns: timestamp,site,sunlight,windSpeed (a header line is optional). Timestamps are epoch
+// seconds, ISO instants (2024-01-01T00:00:00Z) or ISO local date-times taken as UTC. Rows may come in
+// any order; samples missing from the CSV are written as 0.
+// The output is written with plain channel writes (no mapping is held while the file is renamed into
+// place). Samples are collected in a heap window covering a range of steps for every column; traces
+// too long for one window re-read the CSV once per window.
+//
+// Usage: java WeatherTraceConverter <input.csv> <output.wtr> [stepSeconds (default 60)]
+public class WeatherTraceConverter {
+    private static final long WINDOW_BYTES = 64L << 20; // heap buffer for one window of all columns
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java WeatherTraceConverter <input.csv> <output.wtr> [stepSeconds]");
+            System.exit(1);
+        }
+        int stepSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        try {
+            convert(Paths.get(args[0]), Paths.get(args[1]), stepSeconds);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Converts input to output; the output file is replaced atomically once fully written
+    public static void convert(Path input, Path output, int stepSeconds) throws IOException {
+        if (stepSeconds <= 0) {
+            throw new IllegalArgumentException("stepSeconds must be positive");
+        }
+
+        // Pass 1: discover the sites and the time range
+        Map<String, Integer> sites = new LinkedHashMap<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = split(line);
+                if (parts == null) continue;
+                long time = parseTime(parts[0]);
+                first = Math.min(first, time);
+                last = Math.max(last, time);
+                sites.putIfAbsent(parts[1], sites.size());
+            }
+        }
+        if (sites.isEmpty()) {
+            throw new IOException("No weather samples found in " + input);
+        }
+        long steps = (last - first) / stepSeconds + 1;
+        if (steps > Integer.MAX_VALUE / Float.BYTES) {
+            throw new IOException("Trace too long: " + steps + " steps");
+        }
+        int stepCount = (int) steps;
+
+        // Header and site names
+        List<byte[]> names = new ArrayList<>();
+        int namesSize = 0;
+        for (String name : sites.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            namesSize += Short.BYTES + bytes.length;
+        }
+        long dataOffset = (WeatherTrace.HEADER_SIZE + namesSize + 7) & ~7L;
+        ByteBuffer header = ByteBuffer.allocate((int) dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(WeatherTrace.MAGIC)
+                .putInt(WeatherTrace.VERSION)
+                .putInt(sites.size())
+                .putInt(stepCount)
+                .putLong(first)
+                .putInt(stepSeconds)
+                .putInt(0)
+                .putLong(dataOffset);
+        for (byte[] bytes : names) {
+            header.putShort((short) bytes.length).put(bytes);
+        }
+        header.clear();
+
+        // Pass 2 (once per window): place the window's samples in a heap buffer, then write each column's slice
+        Path temp = output.resolveSibling(output.getFileName() + ".tmp");
+        int columnCount = sites.size() * 2;
+        long columnBytes = (long) stepCount * Float.BYTES;
+        int windowSteps = (int) Math.max(1, Math.min(stepCount, WINDOW_BYTES / ((long) columnCount * Float.BYTES)));
+        long windowBytes = (long) columnCount * windowSteps * Float.BYTES;
+        if (windowBytes > Integer.MAX_VALUE) {
+            throw new IOException("Too many sites in one trace: " + sites.size());
+        }
+        ByteBuffer window = ByteBuffer.allocate((int) windowBytes).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            writeFully(channel, header, 0);
+            for (int from = 0; from < stepCount; from += windowSteps) {
+                int count = Math.min(windowSteps, stepCount - from);
+                Arrays.fill(window.array(), (byte) 0);
+                try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] parts = split(line);
+                        if (parts == null) continue;
+                        long step = (parseTime(parts[0]) - first) / stepSeconds - from;
+                        if (step < 0 || step >= count) continue;
+                        int site = sites.get(parts[1]);
+                        window.putFloat((int) (((long) site * 2 * windowSteps + step) * Float.BYTES), Float.parseFloat(parts[2]));
+                        window.putFloat((int) (((long) (site * 2 + 1) * windowSteps + step) * Float.BYTES), Float.parseFloat(parts[3]));
+                    }
+                }
+                for (int column = 0; column < columnCount; column++) {
+                    int at = column * windowSteps * Float.BYTES;
+                    ByteBuffer slice = window.duplicate().limit(at + count * Float.BYTES).position(at);
+                    writeFully(channel, slice, dataOffset + column * columnBytes + (long) from * Float.BYTES);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Wrote " + sites.size() + " sites x " + stepCount + " steps to " + output);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Splits a data line into its four fields; returns null for blank, comment and header lines
+    private static String[] split(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        String[] parts = trimmed.split(",");
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Expected timestamp,site,sunlight,windSpeed but got: " + line);
+        }
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        if (parts[0].equalsIgnoreCase("timestamp")) {
+            return null;
+        }
+        return parts;
+    }
+
+    private static long parseTime(String text) {
+        if (text.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(text);
+        }
+        if (text.endsWith("Z")) {
+            return Instant.parse(text).getEpochSecond();
+        }
+        return LocalDateTime.parse(text).toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,45 @@
+// Environment model that drives solar panels and wind turbines from one site of a WeatherTrace.
+// Simulation hour 0 maps to the first step of the trace; times past the end hold the last sample.
+public class WeatherTraceModel implements EnvironmentModel {
+    private final WeatherTrace trace;
+    private final int site;
+    private final SolarPanel[] solarPanels;
+    private final WindTurbine[] windTurbines;
+    private final double stepsPerHour;
+
+    // Constructor taking the trace, the site to read and the sources to drive
+    public WeatherTraceModel(WeatherTrace trace, int site, SolarPanel[] solarPanels, WindTurbine[] windTurbines) {
+        if (site < 0 || site >= trace.getSiteCount()) {
+            throw new IndexOutOfBoundsException("Site " + site + " out of range (sites " + trace.getSiteCount() + ")");
+        }
+        this.trace = trace;
+        this.site = site;
+        this.solarPanels = solarPanels.clone();
+        this.windTurbines = windTurbines.clone();
+        this.stepsPerHour = 3600.0 / trace.getStepSeconds();
+    }
+
+    // Builds a model driving every SolarPanel and WindTurbine registered with the simulator
+    public static WeatherTraceModel forSimulator(SmartHomeSimulator simulator, WeatherTrace trace, int site) {
+        return new WeatherTraceModel(trace, site,
+                simulator.getRenewableSources().stream().filter(SolarPanel.class::isInstance).toArray(SolarPanel[]::new),
+                simulator.getRenewableSources().stream().filter(WindTurbine.class::isInstance).toArray(WindTurbine[]::new));
+    }
+
+    @Override
+    public void apply(double timeHours) {
+        if (trace.getStepCount() == 0) {
+            return;
+        }
+        long step = (long) Math.floor(timeHours * stepsPerHour);
+        int index = (int) Math.max(0, Math.min(trace.getStepCount() - 1, step));
+        double sunlightIntensity = trace.getSunlight(site, index);
+        double windSpeed = trace.getWindSpeed(site, index);
+        for (SolarPanel panel : solarPanels) {
+            panel.setSunlightIntensity(sunlightIntensity);
+        }
+        for (WindTurbine turbine : windTurbines) {
+            turbine.setWindSpeed(windSpeed);
+        }
+    }
+}
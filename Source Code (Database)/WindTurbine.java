@@ -3,12 +3,14 @@ public class WindTurbine implements RenewableEnergySource {
     private double bladeDiameter; // in meters
     private double windSpeed;     // in meters per second
     private double efficiency;    // efficiency factor (0-1)
+    private final double powerCoefficient; // 0.5 * airDensity * sweptArea * efficiency, precomputed once
 
     // Constructor to initialize blade diameter and efficiency
     public WindTurbine(double bladeDiameter, double efficiency) {
         this.bladeDiameter = bladeDiameter;
         this.efficiency = efficiency;
         this.windSpeed = 0.0; // default wind speed
+        this.powerCoefficient = powerCoefficient(bladeDiameter, efficiency);
     }
 
     // Setter for wind speed
@@ -19,9 +21,25 @@ public class WindTurbine implements RenewableEnergySource {
     // Generates energy output in Watts using simplified wind turbine power formula
     @Override
     public double generateEnergy() {
+        return powerCoefficient * windSpeed * windSpeed * windSpeed;
+    }
+
+    // Watts produced per (m/s)^3 of wind speed
+    public double getPowerCoefficient() {
+        return powerCoefficient;
+    }
+
+    // Getter for efficiency
+    public double getEfficiency() {
+        return efficiency;
+    }
+
+    // Constant part of the power formula: 0.5 * airDensity * sweptArea * efficiency
+    static double powerCoefficient(double bladeDiameter, double efficiency) {
         double airDensity = 1.225; // kg/m^3 (standard air density at sea level)
-        double sweptArea = Math.PI * Math.pow(bladeDiameter / 2, 2);
-        return 0.5 * airDensity * sweptArea * Math.pow(windSpeed, 3) * efficiency;
+        double radius = bladeDiameter / 2;
+        double sweptArea = Math.PI * radius * radius;
+        return 0.5 * airDensity * sweptArea * efficiency;
     }
 
     // Getter for blade diameter